@@ -21,6 +21,8 @@ import org.apache.logging.log4j.Logger;
 
 import java.lang.reflect.Field;
 import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Created 20/03/2022 by SuperMartijn642
@@ -41,7 +43,13 @@ public class CommonUtils {
         }
     }
 
+    /**
+     * Maximum number of tasks waiting for a thread in the worker executor
+     */
+    private static final int WORKER_QUEUE_CAPACITY = 4096;
+
     private static MinecraftServer server;
+    private static ExecutorService workerExecutor;
 
     static void initialize(){
         EventBus eventBus = getEventBus("supermartijn642corelib");
@@ -65,6 +73,23 @@ public class CommonUtils {
         return server;
     }
 
+    /**
+     * @return a shared executor for running expensive tasks off the main thread. At most {@value #WORKER_QUEUE_CAPACITY} tasks
+     * may be waiting at once, beyond that {@link ExecutorService#execute(Runnable)} throws a {@link RejectedExecutionException}.
+     */
+    public static synchronized ExecutorService getWorkerExecutor(){
+        if(workerExecutor == null){
+            AtomicInteger threadCounter = new AtomicInteger();
+            int threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+            workerExecutor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(WORKER_QUEUE_CAPACITY), runnable -> {
+                Thread thread = new Thread(runnable, "CoreLib Worker #" + threadCounter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return workerExecutor;
+    }
+
     public static World getLevel(DimensionType dimensionType){
         MinecraftServer server = getServer();
         return server == null ? null : server.getWorld(dimensionType.getId());
@@ -1,5 +1,7 @@
 package com.supermartijn642.core;
 
+import com.supermartijn642.core.block.BlockEntitySyncedFieldsPacket;
+import com.supermartijn642.core.block.BlockEntityTickScheduler;
 import com.supermartijn642.core.data.TagLoader;
 import com.supermartijn642.core.data.condition.*;
 import com.supermartijn642.core.data.tag.entries.NamespaceTagEntry;
@@ -7,8 +9,11 @@ import com.supermartijn642.core.generator.GeneratorManager;
 import com.supermartijn642.core.generator.standard.CoreLibMiningTagGenerator;
 import com.supermartijn642.core.loot_table.SurvivesExplosionLootCondition;
 import com.supermartijn642.core.loot_table.ToolMatchLootCondition;
+import com.supermartijn642.core.network.ChannelIdTableAckPacket;
+import com.supermartijn642.core.network.ChannelIdTablePacket;
 import com.supermartijn642.core.network.OpenContainerPacket;
 import com.supermartijn642.core.network.PacketChannel;
+import com.supermartijn642.core.network.RegistryIdTablePacket;
 import com.supermartijn642.core.registry.ClientRegistrationHandler;
 import com.supermartijn642.core.registry.GeneratorRegistrationHandler;
 import com.supermartijn642.core.registry.RegistrationHandler;
@@ -19,6 +24,7 @@ import net.minecraftforge.fml.common.Mod;
 import net.minecraftforge.fml.common.event.FMLInitializationEvent;
 import net.minecraftforge.fml.common.event.FMLLoadCompleteEvent;
 import net.minecraftforge.fml.common.event.FMLPreInitializationEvent;
+import net.minecraftforge.fml.common.event.FMLServerStartingEvent;
 import org.apache.logging.log4j.Logger;
 
 /**
@@ -33,9 +39,16 @@ public class CoreLib {
 
     public CoreLib(){
         CHANNEL.registerMessage(OpenContainerPacket.class, OpenContainerPacket::new, true);
+        CHANNEL.registerMessage(ChannelIdTablePacket.class, ChannelIdTablePacket::new, false);
+        CHANNEL.registerMessage(ChannelIdTableAckPacket.class, ChannelIdTableAckPacket::new, false);
+        CHANNEL.registerMessage(RegistryIdTablePacket.class, RegistryIdTablePacket::new, false);
+        CHANNEL.registerMessage(BlockEntitySyncedFieldsPacket.class, BlockEntitySyncedFieldsPacket::new, true);
 
         CommonUtils.initialize();
 
+        if(!BlockEntityTickScheduler.isSupported())
+            LOGGER.warn("SpongeForge is installed, block entity tick intervals, sleeping, lazy data loading, and async saving will be ignored!");
+
         // Register conditional recipe type
         RegistrationHandler handler = RegistrationHandler.get("supermartijn642corelib");
         handler.registerResourceConditionSerializer("mod_loaded", ModLoadedResourceCondition.SERIALIZER);
@@ -66,6 +79,11 @@ public class CoreLib {
             ClientRegistrationHandler.registerAllRenderers();
     }
 
+    @Mod.EventHandler
+    private static void onServerStarting(FMLServerStartingEvent e){
+        e.registerServerCommand(new CoreLibCommand());
+    }
+
     @Mod.EventHandler
     private static void onLoadComplete(FMLLoadCompleteEvent e){
         // Load all tags
@@ -0,0 +1,213 @@
+package com.supermartijn642.core;
+
+import com.supermartijn642.core.block.BlockEntityProfiler;
+import com.supermartijn642.core.network.PacketChannelMetrics;
+import com.supermartijn642.core.network.PacketRecorder;
+import com.supermartijn642.core.network.PacketReplay;
+import com.supermartijn642.core.registry.Registries;
+import com.supermartijn642.core.registry.RegistryUtil;
+import com.supermartijn642.core.util.LatencyHistogram;
+import net.minecraft.command.CommandBase;
+import net.minecraft.command.CommandException;
+import net.minecraft.command.ICommandSender;
+import net.minecraft.command.WrongUsageException;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.text.TextFormatting;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+
+/**
+ * Created 17/10/2026 by SuperMartijn642
+ */
+public class CoreLibCommand extends CommandBase {
+
+    private static final File RECORDINGS_DIRECTORY = new File("corelib", "packet_recordings");
+
+    @Override
+    public String getName(){
+        return "corelib";
+    }
+
+    @Override
+    public String getUsage(ICommandSender sender){
+        return "/corelib network [reset|record <start [name]|stop>|replay <name>] | profiler <start [sample rate]|stop|reset|types [count]|chunks [count]>";
+    }
+
+    @Override
+    public int getRequiredPermissionLevel(){
+        return 2;
+    }
+
+    @Override
+    public void execute(MinecraftServer server, ICommandSender sender, String[] args) throws CommandException{
+        if(args.length == 0)
+            throw new WrongUsageException(this.getUsage(sender));
+
+        switch(args[0]){
+            case "network":
+                if(args.length == 1)
+                    this.dumpNetworkMetrics(sender);
+                else if(args.length == 2 && args[1].equals("reset")){
+                    PacketChannelMetrics.getAll().forEach(PacketChannelMetrics::reset);
+                    sender.sendMessage(TextComponents.string("Reset network metrics").get());
+                }else if(args.length >= 3 && args.length <= 4 && args[1].equals("record"))
+                    this.recordPackets(sender, args[2], args.length == 4 ? args[3] : null);
+                else if(args.length == 3 && args[1].equals("replay"))
+                    this.replayPackets(server, sender, args[2]);
+                else
+                    throw new WrongUsageException(this.getUsage(sender));
+                break;
+            case "profiler":
+                if(args.length >= 2 && args.length <= 3 && args[1].equals("start")){
+                    int sampleRate = args.length == 3 ? parseInt(args[2], 1) : BlockEntityProfiler.DEFAULT_SAMPLE_RATE;
+                    BlockEntityProfiler.start(sampleRate);
+                    sender.sendMessage(TextComponents.string("Started profiling block entities, measuring 1 in " + sampleRate + " operations").get());
+                }else if(args.length == 2 && args[1].equals("stop")){
+                    BlockEntityProfiler.stop();
+                    sender.sendMessage(TextComponents.string("Stopped profiling block entities").get());
+                }else if(args.length == 2 && args[1].equals("reset")){
+                    BlockEntityProfiler.reset();
+                    sender.sendMessage(TextComponents.string("Reset block entity profiler").get());
+                }else if(args.length >= 2 && args.length <= 3 && (args[1].equals("types") || args[1].equals("chunks"))){
+                    int count = args.length == 3 ? parseInt(args[2], 1, 100) : 10;
+                    if(args[1].equals("types"))
+                        this.dumpProfilerResults(sender, BlockEntityProfiler.getTopTypes(count), type -> String.valueOf(Registries.BLOCK_ENTITY_TYPES.getIdentifier(type)));
+                    else
+                        this.dumpProfilerResults(sender, BlockEntityProfiler.getTopChunks(count), chunk -> "dimension " + chunk.left() + " chunk " + chunk.right().x + ", " + chunk.right().z);
+                }else
+                    throw new WrongUsageException(this.getUsage(sender));
+                break;
+            default:
+                throw new WrongUsageException(this.getUsage(sender));
+        }
+    }
+
+    private void dumpNetworkMetrics(ICommandSender sender){
+        for(PacketChannelMetrics metrics : PacketChannelMetrics.getAll()){
+            if(metrics.getPacketsReceived() == 0 && metrics.getPacketsSent() == 0)
+                continue;
+            sender.sendMessage(TextComponents.string(metrics.getChannelName()).color(TextFormatting.GOLD)
+                .string(": in " + metrics.getPacketsReceived() + " (" + metrics.getBytesReceived() + " B), out " + metrics.getPacketsSent() + " (" + metrics.getBytesSent() + " B)").color(TextFormatting.WHITE)
+                .get());
+            for(String summary : metrics.getPacketSummaries())
+                sender.sendMessage(TextComponents.string("  " + summary).color(TextFormatting.GRAY).get());
+        }
+    }
+
+    private <K> void dumpProfilerResults(ICommandSender sender, List<BlockEntityProfiler.Report<K>> reports, Function<K,String> name){
+        if(reports.isEmpty()){
+            sender.sendMessage(TextComponents.string(BlockEntityProfiler.isEnabled() ? "No block entities were profiled in the last " + BlockEntityProfiler.WINDOW_SECONDS + " seconds" : "The block entity profiler is not running").get());
+            return;
+        }
+        for(BlockEntityProfiler.Report<K> report : reports){
+            sender.sendMessage(TextComponents.string(name.apply(report.getKey())).color(TextFormatting.GOLD)
+                .string(": " + LatencyHistogram.formatNanos(report.getTotalNanos())).color(TextFormatting.WHITE)
+                .get());
+            for(BlockEntityProfiler.Operation operation : BlockEntityProfiler.Operation.values()){
+                long count = report.getCount(operation);
+                if(count == 0)
+                    continue;
+                String summary = "  " + operation.name().toLowerCase(Locale.ROOT) + ": " + count + " calls, " + LatencyHistogram.formatNanos(report.getTotalNanos(operation));
+                long p99 = report.getP99Nanos(operation);
+                if(p99 > 0)
+                    summary += ", p99 " + LatencyHistogram.formatNanos(p99);
+                if(operation != BlockEntityProfiler.Operation.TICK)
+                    summary += ", " + report.getNbtBytes(operation) + " B";
+                sender.sendMessage(TextComponents.string(summary).color(TextFormatting.GRAY).get());
+            }
+        }
+    }
+
+    private void recordPackets(ICommandSender sender, String action, String name) throws CommandException{
+        if(action.equals("start")){
+            if(name == null)
+                name = new SimpleDateFormat("yyyy-MM-dd_HH.mm.ss").format(new Date());
+            else if(!RegistryUtil.isValidNamespace(name))
+                throw new CommandException("Recording name '" + name + "' must only contain characters [a-z0-9_.-]!");
+            if(PacketRecorder.isRecording())
+                throw new CommandException("A recording is already in progress!");
+            File file = new File(RECORDINGS_DIRECTORY, name + ".gz");
+            try{
+                PacketRecorder.start(file);
+            }catch(IOException e){
+                CoreLib.LOGGER.error("Failed to start recording packets to '" + file + "'!", e);
+                throw new CommandException("Failed to start recording: " + e.getMessage());
+            }
+            sender.sendMessage(TextComponents.string("Started recording packets to '" + file.getPath() + "'").get());
+        }else if(action.equals("stop") && name == null){
+            File file = PacketRecorder.stop();
+            if(file == null)
+                throw new CommandException("No recording is in progress!");
+            sender.sendMessage(TextComponents.string("Saved recorded packets to '" + file.getPath() + "'").get());
+        }else
+            throw new WrongUsageException(this.getUsage(sender));
+    }
+
+    /**
+     * Decodes a recording on a worker thread at full speed, without verifying or handling any of its packets.
+     */
+    private void replayPackets(MinecraftServer server, ICommandSender sender, String name) throws CommandException{
+        if(!RegistryUtil.isValidNamespace(name))
+            throw new CommandException("Recording name '" + name + "' must only contain characters [a-z0-9_.-]!");
+        File file = new File(RECORDINGS_DIRECTORY, name + ".gz");
+        if(!file.isFile())
+            throw new CommandException("Could not find recording '" + file.getPath() + "'!");
+
+        PacketReplay replay = PacketReplay.of(file);
+        try{
+            CommonUtils.getWorkerExecutor().execute(() -> {
+                PacketReplay.Result result;
+                try{
+                    result = replay.run();
+                }catch(IOException e){
+                    CoreLib.LOGGER.error("Failed to replay packets from '" + file + "'!", e);
+                    server.addScheduledTask(() -> sender.sendMessage(TextComponents.string("Failed to replay recording: " + e.getMessage()).color(TextFormatting.RED).get()));
+                    return;
+                }
+                server.addScheduledTask(() -> {
+                    sender.sendMessage(TextComponents.string("Decoded " + result.getFrameCount() + " frames in " + LatencyHistogram.formatNanos(result.getDurationNanos())).color(TextFormatting.GOLD)
+                        .string(": " + result.getSkippedFrameCount() + " frames and " + result.getSkippedPacketCount() + " packets skipped, " + result.getFailureCount() + " failures").color(TextFormatting.WHITE)
+                        .get());
+                    for(String summary : result.getPacketSummaries())
+                        sender.sendMessage(TextComponents.string("  " + summary).color(TextFormatting.GRAY).get());
+                });
+            });
+        }catch(RejectedExecutionException e){
+            throw new CommandException("Too many tasks are queued, try again later!");
+        }
+        sender.sendMessage(TextComponents.string("Decoding recording '" + file.getPath() + "'...").get());
+    }
+
+    @Override
+    public List<String> getTabCompletions(MinecraftServer server, ICommandSender sender, String[] args, @Nullable BlockPos targetPos){
+        if(args.length == 1)
+            return getListOfStringsMatchingLastWord(args, "network", "profiler");
+        if(args.length == 2 && args[0].equals("network"))
+            return getListOfStringsMatchingLastWord(args, "reset", "record", "replay");
+        if(args.length == 2 && args[0].equals("profiler"))
+            return getListOfStringsMatchingLastWord(args, "start", "stop", "reset", "types", "chunks");
+        if(args.length == 3 && args[0].equals("network") && args[1].equals("record"))
+            return getListOfStringsMatchingLastWord(args, "start", "stop");
+        if(args.length == 3 && args[0].equals("network") && args[1].equals("replay")){
+            String[] files = RECORDINGS_DIRECTORY.list((directory, file) -> file.endsWith(".gz"));
+            if(files == null)
+                return Collections.emptyList();
+            List<String> names = new ArrayList<>();
+            for(String file : files)
+                names.add(file.substring(0, file.length() - ".gz".length()));
+            return getListOfStringsMatchingLastWord(args, names);
+        }
+        return Collections.emptyList();
+    }
+}
@@ -0,0 +1,168 @@
+package com.supermartijn642.core.block;
+
+import com.google.common.collect.MapMaker;
+import com.supermartijn642.core.CoreLib;
+import net.minecraft.nbt.NBTTagCompound;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Writes the data of block entities with {@link BaseBlockEntityType#asyncSaving() async saving} on worker threads whilst their chunk is saved.
+ * The data is only added to the chunk's nbt right before the chunk gets written to disk or is read back, such that no other thread
+ * modifies the chunk's nbt concurrently. Hence, listeners to {@link net.minecraftforge.event.world.ChunkDataEvent.Save} see the nbt of these
+ * block entities without their {@code "data"} entry.
+ * <p>
+ * Block entities are never written off the main thread from their live state. If writing the data of any block entity in a chunk fails,
+ * the chunk is not written at all, such that the chunk's previously saved nbt is kept rather than losing the block entity's data.
+ * <p>
+ * Created 17/10/2026 by SuperMartijn642
+ */
+public final class AsyncBlockEntitySaves {
+
+    private static final int SAVE_QUEUE_CAPACITY = 1024;
+
+    /**
+     * Block entity data being written for the chunk currently being saved on this thread
+     */
+    private static final ThreadLocal<List<PendingData>> CURRENT_CHUNK = new ThreadLocal<>();
+    /**
+     * Chunks whose block entity data is still being written, by identity. Chunks which get replaced before being written are garbage collected.
+     */
+    private static final Map<NBTTagCompound,PendingChunk> PENDING_CHUNKS = new MapMaker().weakKeys().makeMap();
+    private static ExecutorService saveExecutor;
+
+    /**
+     * Do not use!
+     */
+    @Deprecated
+    public static void beginChunk(){
+        CURRENT_CHUNK.set(new ArrayList<>());
+    }
+
+    /**
+     * Do not use!
+     */
+    @Deprecated
+    public static void endChunk(NBTTagCompound chunkTag){
+        List<PendingData> pendingData = CURRENT_CHUNK.get();
+        CURRENT_CHUNK.remove();
+        if(chunkTag != null && pendingData != null && !pendingData.isEmpty())
+            PENDING_CHUNKS.put(chunkTag, new PendingChunk(pendingData));
+    }
+
+    /**
+     * Adds all block entity data to the given chunk nbt, waiting for any data which is still being written. Does nothing if there is no pending data.
+     * <p>
+     * Do not use!
+     * @return {@code false} if writing the data of any block entity failed, in which case the chunk nbt must be discarded
+     */
+    @Deprecated
+    public static boolean awaitChunk(NBTTagCompound chunkTag){
+        if(chunkTag == null)
+            return true;
+        PendingChunk chunk = PENDING_CHUNKS.get(chunkTag);
+        if(chunk == null)
+            return true;
+        // Failed chunks are kept, such that they are discarded by every caller
+        if(!chunk.complete())
+            return false;
+        PENDING_CHUNKS.remove(chunkTag);
+        return true;
+    }
+
+    /**
+     * @return whether a chunk is being saved on the current thread
+     */
+    static boolean isSavingChunk(){
+        return CURRENT_CHUNK.get() != null;
+    }
+
+    /**
+     * Writes the given data on a worker thread. Once written, the data will be added to {@code tag} under {@code "data"}.
+     */
+    static void submit(BaseBlockEntity entity, NBTTagCompound tag, Supplier<NBTTagCompound> writer){
+        CompletableFuture<NBTTagCompound> future = CompletableFuture.supplyAsync(() -> {
+            if(!BlockEntityProfiler.shouldSample())
+                return writer.get();
+            long start = System.nanoTime();
+            NBTTagCompound data = writer.get();
+            BlockEntityProfiler.record(entity, BlockEntityProfiler.Operation.WRITE_DATA, System.nanoTime() - start, data);
+            return data;
+        }, getSaveExecutor());
+        CURRENT_CHUNK.get().add(new PendingData(entity, tag, future));
+    }
+
+    /**
+     * Saves get their own executor, such that they don't compete with other tasks for the worker executor's queue.
+     * Once the queue is full, data is written on the saving thread instead.
+     */
+    private static synchronized ExecutorService getSaveExecutor(){
+        if(saveExecutor == null){
+            AtomicInteger threadCounter = new AtomicInteger();
+            int threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+            saveExecutor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(SAVE_QUEUE_CAPACITY), runnable -> {
+                Thread thread = new Thread(runnable, "CoreLib Block Entity Saving #" + threadCounter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }, new ThreadPoolExecutor.CallerRunsPolicy());
+        }
+        return saveExecutor;
+    }
+
+    private static final class PendingChunk {
+
+        private final List<PendingData> data;
+        private boolean completed = false;
+        private boolean failed = false;
+
+        private PendingChunk(List<PendingData> data){
+            this.data = data;
+        }
+
+        /**
+         * @return whether all data was written successfully
+         */
+        synchronized boolean complete(){
+            if(this.completed)
+                return !this.failed;
+            // Wait for all data first, such that no worker threads are still using the chunk's nbt
+            List<NBTTagCompound> tags = new ArrayList<>(this.data.size());
+            for(PendingData data : this.data){
+                try{
+                    tags.add(data.future.join());
+                }catch(Exception e){
+                    // The live block entity can't be written from this thread, and writing the chunk without its data would wipe its contents
+                    CoreLib.LOGGER.error("Encountered an exception whilst saving block entity at " + data.entity.getPos() + ", keeping the previously saved chunk instead!", e);
+                    this.failed = true;
+                }
+            }
+            if(!this.failed){
+                for(int i = 0; i < tags.size(); i++){
+                    NBTTagCompound tag = tags.get(i);
+                    if(tag != null && !tag.hasNoTags())
+                        this.data.get(i).tag.setTag("data", tag);
+                }
+            }
+            this.completed = true;
+            return !this.failed;
+        }
+    }
+
+    private static final class PendingData {
+
+        private final BaseBlockEntity entity;
+        private final NBTTagCompound tag;
+        private final CompletableFuture<NBTTagCompound> future;
+
+        private PendingData(BaseBlockEntity entity, NBTTagCompound tag, CompletableFuture<NBTTagCompound> future){
+            this.entity = entity;
+            this.tag = tag;
+            this.future = future;
+        }
+    }
+}
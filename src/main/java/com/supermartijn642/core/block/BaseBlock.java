@@ -126,6 +126,7 @@ public class BaseBlock extends Block implements EditableBlockRenderLayer {
         if(((BaseBlockEntity)entity).destroyedByCreativePlayer)
             return Collections.emptyList();
 
+        ((BaseBlockEntity)entity).ensureDataLoaded();
         NBTTagCompound tileTag = ((BaseBlockEntity)entity).writeItemStackData();
         if(tileTag == null || tileTag.hasNoTags())
             return drops;
@@ -198,6 +199,7 @@ public class BaseBlock extends Block implements EditableBlockRenderLayer {
         if(!(entity instanceof BaseBlockEntity))
             return stack;
 
+        ((BaseBlockEntity)entity).ensureDataLoaded();
         NBTTagCompound entityTag = ((BaseBlockEntity)entity).writeItemStackData();
         if(entityTag == null || entityTag.hasNoTags())
             return stack;
@@ -213,6 +215,11 @@ public class BaseBlock extends Block implements EditableBlockRenderLayer {
 
     @Override
     public boolean onBlockActivated(World level, BlockPos pos, IBlockState state, EntityPlayer player, EnumHand hand, EnumFacing hitSide, float hitX, float hitY, float hitZ){
+        if(this.hasTileEntity(state)){
+            TileEntity entity = level.getTileEntity(pos);
+            if(entity instanceof BaseBlockEntity)
+                ((BaseBlockEntity)entity).ensureDataLoaded();
+        }
         return this.interact(state, level, pos, player, hand, hitSide, new Vec3d(hitX + pos.getX(), hitY + pos.getY(), hitZ + pos.getZ())).consumesAction();
     }
 
@@ -1,17 +1,31 @@
 package com.supermartijn642.core.block;
 
+import com.supermartijn642.core.CoreLib;
 import com.supermartijn642.core.registry.Registries;
 import net.minecraft.block.state.IBlockState;
 import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.network.NetworkManager;
+import net.minecraft.network.PacketBuffer;
 import net.minecraft.network.play.server.SPacketUpdateTileEntity;
 import net.minecraft.tileentity.TileEntity;
+import net.minecraft.util.EnumFacing;
+import net.minecraftforge.common.capabilities.Capability;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
 
 /**
  * Created 1/26/2021 by SuperMartijn642
  */
 public abstract class BaseBlockEntity extends TileEntity {
 
+    /**
+     * Update packet type for packets holding client data encoded by {@link ClientDataCache}
+     */
+    private static final int ENCODED_UPDATE_PACKET = 1;
+
     private final BaseBlockEntityType<?> type;
 
     // Used for block drops
@@ -20,6 +34,32 @@ public abstract class BaseBlockEntity extends TileEntity {
      * Create's contraptions call {@link #getUpdatePacket()} when placing back blocks, so this should be {@code true} initially
      */
     private boolean dataChanged = true;
+    /**
+     * World time from which the block entity may be ticked again, {@link Long#MAX_VALUE} whilst sleeping until woken up
+     */
+    long nextTick = 0;
+    /**
+     * Whether the block entity is waiting for its data changes to be sent at the end of the tick
+     */
+    boolean dataChangeQueued = false;
+    /**
+     * Mask of synced fields which changed since they were last sent
+     */
+    long changedSyncedFields = 0;
+    /**
+     * Whether the block entity is queued in {@link BlockEntityDataChanges}
+     */
+    boolean queuedForChanges = false;
+    private final List<SyncedField> syncedFields = new ArrayList<>(0);
+    /**
+     * Data loaded with the chunk which has not been passed to {@link #readData(NBTTagCompound)} yet, see {@link BaseBlockEntityType#lazyDataLoading()}
+     */
+    private NBTTagCompound unloadedData;
+    /**
+     * Client data and its encoded form cached by {@link ClientDataCache}, only used server-side
+     */
+    NBTTagCompound cachedClientData;
+    byte[] encodedClientData;
 
     public BaseBlockEntity(BaseBlockEntityType<?> type){
         super();
@@ -31,11 +71,162 @@ public abstract class BaseBlockEntity extends TileEntity {
 
     /**
      * Marks the tile entity as dirty and send an update packet to clients.
+     * Server-side, changes are collected and sent once at the end of the tick, see {@link #dataChangedImmediately()}.
      */
     public void dataChanged(){
+        this.ensureDataLoaded();
+        this.dataChanged = true;
+        this.wakeUp();
+        ClientDataCache.invalidate(this);
+        if(this.world.isRemote)
+            this.dataChangedImmediately();
+        else{
+            this.dataChangeQueued = true;
+            this.queueChanges();
+        }
+    }
+
+    /**
+     * Marks the tile entity as dirty and immediately notifies the world, rather than waiting for the end of the tick like {@link #dataChanged()}.
+     */
+    public void dataChangedImmediately(){
+        this.ensureDataLoaded();
         this.dataChanged = true;
+        this.dataChangeQueued = false;
+        ClientDataCache.invalidate(this);
         this.markDirty();
-        this.world.notifyBlockUpdate(this.pos, this.getBlockState(), this.getBlockState(), 2 | 4);
+        IBlockState state = this.getBlockState();
+        this.world.notifyBlockUpdate(this.pos, state, state, 2 | 4);
+    }
+
+    /**
+     * Passes the data loaded with the block entity's chunk to {@link #readData(NBTTagCompound)}, if that has not happened yet.
+     * Only has an effect for types with {@link BaseBlockEntityType#lazyDataLoading() lazy data loading}.
+     * Must be called before accessing the block entity's data from {@link #onLoad()}, as lazy data is not loaded yet at that point.
+     */
+    public void ensureDataLoaded(){
+        NBTTagCompound data = this.unloadedData;
+        if(data != null){
+            this.unloadedData = null;
+            BlockEntityProfiler.read(this, data, this::readData);
+        }
+    }
+
+    /**
+     * Registers a field to be saved with the block entity and synced to clients automatically. Only changed fields are sent to clients.
+     * Fields must be registered when the block entity is constructed, at most 64 fields may be registered.
+     * @return the given field
+     */
+    protected <T extends SyncedField> T registerSyncedField(T field){
+        if(field.owner != null)
+            throw new IllegalArgumentException("Field '" + field.getName() + "' has already been registered!");
+        if(this.syncedFields.size() >= 64)
+            throw new IllegalStateException("Cannot register more than 64 synced fields!");
+        for(SyncedField other : this.syncedFields){
+            if(other.getName().equals(field.getName()))
+                throw new IllegalArgumentException("Duplicate synced field name '" + field.getName() + "'!");
+        }
+        field.owner = this;
+        field.index = this.syncedFields.size();
+        this.syncedFields.add(field);
+        return field;
+    }
+
+    void syncedFieldChanged(int index){
+        if(this.world == null || this.world.isRemote)
+            return;
+        this.changedSyncedFields |= 1L << index;
+        this.wakeUp();
+        this.queueChanges();
+    }
+
+    private void queueChanges(){
+        if(!this.queuedForChanges){
+            this.queuedForChanges = true;
+            BlockEntityDataChanges.queue(this);
+        }
+    }
+
+    /**
+     * Sends the changes collected during the tick, called by {@link BlockEntityDataChanges}.
+     */
+    void sendQueuedChanges(){
+        boolean fullUpdate = this.dataChangeQueued;
+        if(fullUpdate)
+            this.dataChangedImmediately();
+        if(this.changedSyncedFields != 0){
+            if(!fullUpdate)
+                this.markDirty();
+            long fields = this.changedSyncedFields;
+            this.changedSyncedFields = 0;
+            CoreLib.CHANNEL.sendToAllTrackingChunk(this.world, this.pos, new BlockEntitySyncedFieldsPacket(this, fields));
+        }
+    }
+
+    void writeSyncedFields(PacketBuffer buffer, long fields){
+        buffer.writeVarLong(fields);
+        for(int index = 0; index < this.syncedFields.size(); index++){
+            if((fields & (1L << index)) != 0)
+                this.syncedFields.get(index).write(buffer);
+        }
+    }
+
+    void readSyncedFields(PacketBuffer buffer){
+        long fields = buffer.readVarLong();
+        if(this.syncedFields.size() < 64 && (fields >>> this.syncedFields.size()) != 0)
+            throw new RuntimeException("Received unknown synced fields for block entity '" + Registries.BLOCK_ENTITY_TYPES.getIdentifier(this.type) + "'!");
+        for(int index = 0; index < this.syncedFields.size(); index++){
+            if((fields & (1L << index)) != 0)
+                this.syncedFields.get(index).read(buffer);
+        }
+        this.wakeUp();
+    }
+
+    private NBTTagCompound writeSyncedFieldsNBT(){
+        NBTTagCompound tag = new NBTTagCompound();
+        for(SyncedField field : this.syncedFields)
+            tag.setTag(field.getName(), field.writeNBT());
+        return tag;
+    }
+
+    private void readSyncedFieldsNBT(NBTTagCompound tag){
+        for(SyncedField field : this.syncedFields){
+            if(tag.hasKey(field.getName()))
+                field.readNBT(tag.getTag(field.getName()));
+        }
+    }
+
+    /**
+     * Stops {@link TickableBlockEntity#update()} from being called until the block entity is woken up by {@link #wakeUp()},
+     * {@link #dataChanged()}, a neighbor update, or, client-side, by receiving data from the server.
+     * Only affects the side it is called on. Ignored when SpongeForge is installed, see {@link BlockEntityTickScheduler#isSupported()}.
+     */
+    protected void sleep(){
+        this.nextTick = Long.MAX_VALUE;
+    }
+
+    /**
+     * Stops {@link TickableBlockEntity#update()} from being called for the given number of ticks, or until woken up earlier.
+     * @see #sleep()
+     */
+    protected void sleep(int ticks){
+        if(ticks < 1)
+            throw new IllegalArgumentException("Ticks must be at least 1, not '" + ticks + "'!");
+        this.nextTick = this.world.getTotalWorldTime() + ticks;
+    }
+
+    /**
+     * Makes sure {@link TickableBlockEntity#update()} is called again on the block entity's next scheduled tick.
+     */
+    public void wakeUp(){
+        this.nextTick = 0;
+    }
+
+    /**
+     * @return whether the block entity is currently sleeping
+     */
+    public boolean isSleeping(){
+        return this.world != null && this.nextTick > this.world.getTotalWorldTime();
     }
 
     /**
@@ -45,6 +236,17 @@ public abstract class BaseBlockEntity extends TileEntity {
      */
     protected abstract NBTTagCompound writeData();
 
+    /**
+     * Captures the state of the block entity on the main thread, such that it can be written on a worker thread when the chunk is saved.
+     * The returned supplier must not access the block entity's state and should produce the same data as {@link #writeData()}.
+     * Only used for block entity types with {@link BaseBlockEntityType#asyncSaving()}.
+     * @return a supplier writing the captured state, or {@code null} to write the data on the main thread
+     */
+    @Nullable
+    protected Supplier<NBTTagCompound> snapshotData(){
+        return null;
+    }
+
     /**
      * Writes tile entity data to be sent to the client.
      * The stored data will be read in {@link #readData(NBTTagCompound)}.
@@ -75,24 +277,76 @@ public abstract class BaseBlockEntity extends TileEntity {
         super.writeToNBT(compound);
         // Replace the 'id' key
         compound.setString("id", Registries.BLOCK_ENTITY_TYPES.getIdentifier(this.type).toString());
-        NBTTagCompound data = this.writeData();
-        if(data != null && !data.hasNoTags())
-            compound.setTag("data", data);
+        // Data which has not been loaded yet can be saved as is
+        Supplier<NBTTagCompound> snapshot = this.unloadedData == null && this.type.hasAsyncSaving() && AsyncBlockEntitySaves.isSavingChunk() ? this.snapshotData() : null;
+        if(snapshot != null)
+            AsyncBlockEntitySaves.submit(this, compound, snapshot);
+        else{
+            NBTTagCompound data = this.unloadedData != null ? this.unloadedData : BlockEntityProfiler.write(this, BlockEntityProfiler.Operation.WRITE_DATA, this::writeData);
+            if(data != null && !data.hasNoTags())
+                compound.setTag("data", data);
+        }
+        if(!this.syncedFields.isEmpty())
+            compound.setTag("synced", this.writeSyncedFieldsNBT());
         return compound;
     }
 
     @Override
     public void readFromNBT(NBTTagCompound nbt){
         super.readFromNBT(nbt);
-        this.readData(nbt.getCompoundTag("data"));
+        ClientDataCache.invalidate(this);
+        // Block entities loaded with their chunk don't have a world yet
+        if(this.type.hasLazyDataLoading() && this.world == null && BlockEntityTickScheduler.isSupported())
+            this.unloadedData = nbt.getCompoundTag("data");
+        else{
+            this.unloadedData = null;
+            BlockEntityProfiler.read(this, nbt.getCompoundTag("data"), this::readData);
+        }
+        if(!this.syncedFields.isEmpty())
+            this.readSyncedFieldsNBT(nbt.getCompoundTag("synced"));
+    }
+
+    @Override
+    public void markDirty(){
+        // Data may have changed without calling dataChanged()
+        ClientDataCache.invalidate(this);
+        super.markDirty();
+    }
+
+    @Override
+    public boolean hasCapability(Capability<?> capability, @Nullable EnumFacing facing){
+        this.ensureDataLoaded();
+        return super.hasCapability(capability, facing);
+    }
+
+    @Nullable
+    @Override
+    public <T> T getCapability(Capability<T> capability, @Nullable EnumFacing facing){
+        this.ensureDataLoaded();
+        return super.getCapability(capability, facing);
+    }
+
+    @Override
+    public void invalidate(){
+        super.invalidate();
+        ClientDataCache.invalidate(this);
+    }
+
+    @Override
+    public void onChunkUnload(){
+        super.onChunkUnload();
+        ClientDataCache.invalidate(this);
     }
 
     @Override
     public NBTTagCompound getUpdateTag(){
+        this.ensureDataLoaded();
         NBTTagCompound tag = super.writeToNBT(new NBTTagCompound());
-        NBTTagCompound data = this.writeClientData();
+        NBTTagCompound data = this.usesClientDataCache() ? ClientDataCache.getData(this) : BlockEntityProfiler.write(this, BlockEntityProfiler.Operation.WRITE_CLIENT_DATA, this::writeClientData);
         if(data != null && !data.hasNoTags())
             tag.setTag("data", data);
+        if(!this.syncedFields.isEmpty())
+            tag.setTag("synced", this.writeSyncedFieldsNBT());
         return tag;
     }
 
@@ -100,13 +354,26 @@ public abstract class BaseBlockEntity extends TileEntity {
     public void handleUpdateTag(NBTTagCompound tag){
         super.readFromNBT(tag);
         this.readData(tag.getCompoundTag("data"));
+        if(!this.syncedFields.isEmpty())
+            this.readSyncedFieldsNBT(tag.getCompoundTag("synced"));
+        this.wakeUp();
     }
 
     @Override
     public SPacketUpdateTileEntity getUpdatePacket(){
+        this.ensureDataLoaded();
         if(this.dataChanged){
             this.dataChanged = false;
-            NBTTagCompound data = this.writeClientData();
+            // Send the encoded data as is, rather than writing it for every player
+            if(this.usesClientDataCache()){
+                byte[] encodedData = ClientDataCache.getEncoded(this);
+                if(encodedData == null)
+                    return null;
+                NBTTagCompound tag = new NBTTagCompound();
+                tag.setByteArray("data", encodedData);
+                return new SPacketUpdateTileEntity(this.pos, ENCODED_UPDATE_PACKET, tag);
+            }
+            NBTTagCompound data = BlockEntityProfiler.write(this, BlockEntityProfiler.Operation.WRITE_CLIENT_DATA, this::writeClientData);
             if(data != null && !data.hasNoTags())
                 return new SPacketUpdateTileEntity(this.pos, 0, data);
         }
@@ -115,7 +382,12 @@ public abstract class BaseBlockEntity extends TileEntity {
 
     @Override
     public void onDataPacket(NetworkManager net, SPacketUpdateTileEntity pkt){
-        this.readData(pkt.getNbtCompound());
+        this.readData(pkt.getTileEntityType() == ENCODED_UPDATE_PACKET ? ClientDataCache.decode(pkt.getNbtCompound().getByteArray("data")) : pkt.getNbtCompound());
+        this.wakeUp();
+    }
+
+    private boolean usesClientDataCache(){
+        return this.type.hasClientDataCache() && this.world != null && !this.world.isRemote;
     }
 
     public IBlockState getBlockState(){
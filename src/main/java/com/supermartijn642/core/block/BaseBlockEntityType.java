@@ -25,6 +25,10 @@ public final class BaseBlockEntityType<T extends BaseBlockEntity> {
     private final Supplier<T> entitySupplier;
     private final Set<Block> validBlocks;
     final Set<Class<?>> blockEntityClasses = new HashSet<>();
+    private int tickInterval = 1;
+    private boolean lazyDataLoading = false;
+    private boolean asyncSaving = false;
+    private boolean clientDataCache = false;
 
     private BaseBlockEntityType(Supplier<T> entitySupplier, Set<Block> validBlocks){
         this.entitySupplier = entitySupplier;
@@ -41,6 +45,84 @@ public final class BaseBlockEntityType<T extends BaseBlockEntity> {
         return this.entitySupplier.get();
     }
 
+    /**
+     * Sets the number of ticks between calls to {@link TickableBlockEntity#update()} for block entities of this type.
+     * Block entities are spread evenly across ticks, such that they don't all get ticked in the same tick.
+     * Ignored when SpongeForge is installed, see {@link BlockEntityTickScheduler#isSupported()}.
+     * @param ticks number of ticks between updates, defaults to 1
+     * @return this block entity type
+     */
+    public BaseBlockEntityType<T> tickInterval(int ticks){
+        if(ticks < 1)
+            throw new IllegalArgumentException("Tick interval must be at least 1, not '" + ticks + "'!");
+        this.tickInterval = ticks;
+        return this;
+    }
+
+    /**
+     * @return the number of ticks between calls to {@link TickableBlockEntity#update()}
+     */
+    public int getTickInterval(){
+        return this.tickInterval;
+    }
+
+    /**
+     * Makes block entities of this type only pass the data loaded with their chunk to {@link BaseBlockEntity#readData(net.minecraft.nbt.NBTTagCompound)}
+     * once it is needed, rather than when the chunk loads. Data is loaded before the block entity is ticked, synced to clients, interacted
+     * with through its block, when its capabilities are requested, when a comparator reads its block, or when {@link BaseBlockEntity#dataChanged()} is called.
+     * Block entities which are accessed in any other way, including from {@link BaseBlockEntity#onLoad()}, must call {@link BaseBlockEntity#ensureDataLoaded()} first.
+     * Ignored when SpongeForge is installed, see {@link BlockEntityTickScheduler#isSupported()}.
+     * @return this block entity type
+     */
+    public BaseBlockEntityType<T> lazyDataLoading(){
+        this.lazyDataLoading = true;
+        return this;
+    }
+
+    /**
+     * @return whether block entities of this type load their data lazily
+     */
+    public boolean hasLazyDataLoading(){
+        return this.lazyDataLoading;
+    }
+
+    /**
+     * Makes block entities of this type write their data on a worker thread when their chunk is saved. Block entities must
+     * implement {@link BaseBlockEntity#snapshotData()} to capture their state on the main thread, otherwise their data is written as usual.
+     * The data is not yet present in the chunk nbt passed to {@link net.minecraftforge.event.world.ChunkDataEvent.Save} listeners.
+     * Ignored when SpongeForge is installed, see {@link BlockEntityTickScheduler#isSupported()}.
+     * @return this block entity type
+     */
+    public BaseBlockEntityType<T> asyncSaving(){
+        this.asyncSaving = true;
+        return this;
+    }
+
+    /**
+     * @return whether block entities of this type write their data on a worker thread when their chunk is saved
+     */
+    public boolean hasAsyncSaving(){
+        return this.asyncSaving;
+    }
+
+    /**
+     * Makes block entities of this type cache the data written by {@link BaseBlockEntity#writeClientData()} server-side until their data changes,
+     * such that it isn't written again for every player who starts watching their chunk. Block entities must call {@link BaseBlockEntity#dataChanged()}
+     * or {@link BaseBlockEntity#markDirty()} whenever their client data changes, otherwise players may receive outdated data.
+     * @return this block entity type
+     */
+    public BaseBlockEntityType<T> cacheClientData(){
+        this.clientDataCache = true;
+        return this;
+    }
+
+    /**
+     * @return whether block entities of this type cache their client data
+     */
+    public boolean hasClientDataCache(){
+        return this.clientDataCache;
+    }
+
     /**
      * Do not use!
      */
@@ -0,0 +1,64 @@
+package com.supermartijn642.core.block;
+
+import net.minecraft.world.World;
+import net.minecraftforge.common.MinecraftForge;
+import net.minecraftforge.event.world.WorldEvent;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+import net.minecraftforge.fml.common.gameevent.TickEvent;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects server-side block entities whose data or synced fields changed, such that they only send a single update per tick.
+ * Only accessed from the server thread.
+ * <p>
+ * Created 17/10/2026 by SuperMartijn642
+ */
+final class BlockEntityDataChanges {
+
+    private static final Map<World,List<BaseBlockEntity>> CHANGED = new IdentityHashMap<>();
+
+    static{
+        MinecraftForge.EVENT_BUS.register(new Object() {
+            @SubscribeEvent
+            public void onWorldTick(TickEvent.WorldTickEvent e){
+                if(e.phase == TickEvent.Phase.END && !e.world.isRemote)
+                    flush(e.world);
+            }
+
+            @SubscribeEvent
+            public void onServerTick(TickEvent.ServerTickEvent e){
+                // Catch changes made outside of world ticks
+                if(e.phase == TickEvent.Phase.END && !CHANGED.isEmpty())
+                    new ArrayList<>(CHANGED.keySet()).forEach(BlockEntityDataChanges::flush);
+            }
+
+            @SubscribeEvent
+            public void onWorldUnload(WorldEvent.Unload e){
+                if(!e.getWorld().isRemote)
+                    CHANGED.remove(e.getWorld());
+            }
+        });
+    }
+
+    static void queue(BaseBlockEntity entity){
+        CHANGED.computeIfAbsent(entity.getWorld(), w -> new ArrayList<>()).add(entity);
+    }
+
+    private static void flush(World world){
+        List<BaseBlockEntity> entities = CHANGED.remove(world);
+        if(entities == null)
+            return;
+        for(BaseBlockEntity entity : entities){
+            entity.queuedForChanges = false;
+            if(entity.isInvalid() || entity.getWorld() != world){
+                entity.dataChangeQueued = false;
+                entity.changedSyncedFields = 0;
+            }else
+                entity.sendQueuedChanges();
+        }
+    }
+}
@@ -0,0 +1,340 @@
+package com.supermartijn642.core.block;
+
+import com.google.common.io.ByteStreams;
+import com.google.common.io.CountingOutputStream;
+import com.supermartijn642.core.util.LatencyHistogram;
+import com.supermartijn642.core.util.Pair;
+import net.minecraft.nbt.CompressedStreamTools;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.World;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Measures server-side ticking and serialization of {@link BaseBlockEntity}s per {@link BaseBlockEntityType} and per chunk.
+ * Profiling is disabled by default and only covers the last {@link #WINDOW_SECONDS} seconds. Only a sample of all operations is
+ * measured, counts, times and sizes are extrapolated from the sampled operations.
+ * <p>
+ * Created 17/10/2026 by SuperMartijn642
+ */
+public final class BlockEntityProfiler {
+
+    public static final int WINDOW_SECONDS = 60;
+    private static final int WINDOW_BUCKETS = 6;
+    private static final long BUCKET_NANOS = TimeUnit.SECONDS.toNanos(WINDOW_SECONDS) / WINDOW_BUCKETS;
+
+    /**
+     * Number of operations per measured operation used by {@link #start()}
+     */
+    public static final int DEFAULT_SAMPLE_RATE = 16;
+
+    private static final AtomicReferenceArray<Bucket> BUCKETS = new AtomicReferenceArray<>(WINDOW_BUCKETS);
+    private static volatile boolean enabled = false;
+    private static volatile int sampleRate = DEFAULT_SAMPLE_RATE;
+
+    /**
+     * Starts measuring block entities, measuring one in every {@link #DEFAULT_SAMPLE_RATE} operations.
+     */
+    public static void start(){
+        start(DEFAULT_SAMPLE_RATE);
+    }
+
+    /**
+     * Starts measuring block entities, measuring one in every {@code sampleRate} operations.
+     * @param sampleRate number of operations per measured operation, {@code 1} measures every operation
+     */
+    public static void start(int sampleRate){
+        if(sampleRate < 1)
+            throw new IllegalArgumentException("Sample rate must be at least 1, not '" + sampleRate + "'!");
+        BlockEntityProfiler.sampleRate = sampleRate;
+        enabled = true;
+    }
+
+    /**
+     * Stops measuring block entities. Results up to this point remain available until they fall outside the window.
+     */
+    public static void stop(){
+        enabled = false;
+    }
+
+    public static boolean isEnabled(){
+        return enabled;
+    }
+
+    /**
+     * @return whether the current operation should be measured
+     */
+    static boolean shouldSample(){
+        if(!enabled)
+            return false;
+        int sampleRate = BlockEntityProfiler.sampleRate;
+        return sampleRate == 1 || ThreadLocalRandom.current().nextInt(sampleRate) == 0;
+    }
+
+    /**
+     * Clears all measurements.
+     */
+    public static void reset(){
+        for(int i = 0; i < WINDOW_BUCKETS; i++)
+            BUCKETS.set(i, null);
+    }
+
+    /**
+     * Gets the block entity types which took the most time within the window.
+     * @param limit maximum number of types to return
+     * @return reports ordered by total time, descending
+     */
+    public static List<Report<BaseBlockEntityType<?>>> getTopTypes(int limit){
+        return getTop(bucket -> bucket.types, limit);
+    }
+
+    /**
+     * Gets the chunks whose block entities took the most time within the window.
+     * Chunks are identified by their dimension id and position.
+     * @param limit maximum number of chunks to return
+     * @return reports ordered by total time, descending
+     */
+    public static List<Report<Pair<Integer,ChunkPos>>> getTopChunks(int limit){
+        return getTop(bucket -> bucket.chunks, limit);
+    }
+
+    private static <K> List<Report<K>> getTop(Function<Bucket,Map<K,Stats[]>> statsGetter, int limit){
+        long epoch = System.nanoTime() / BUCKET_NANOS;
+        Map<K,Report<K>> reports = new HashMap<>();
+        for(int i = 0; i < WINDOW_BUCKETS; i++){
+            Bucket bucket = BUCKETS.get(i);
+            if(bucket == null || bucket.epoch <= epoch - WINDOW_BUCKETS)
+                continue;
+            statsGetter.apply(bucket).forEach((key, stats) -> reports.computeIfAbsent(key, Report::new).add(stats));
+        }
+        List<Report<K>> sorted = new ArrayList<>(reports.values());
+        sorted.sort(Comparator.comparingLong(Report<K>::getTotalNanos).reversed());
+        return sorted.size() > limit ? new ArrayList<>(sorted.subList(0, limit)) : sorted;
+    }
+
+    static NBTTagCompound write(BaseBlockEntity entity, Operation operation, Supplier<NBTTagCompound> writer){
+        if(!shouldSample())
+            return writer.get();
+        long start = System.nanoTime();
+        NBTTagCompound tag = writer.get();
+        record(entity, operation, System.nanoTime() - start, tag);
+        return tag;
+    }
+
+    static void read(BaseBlockEntity entity, NBTTagCompound tag, Consumer<NBTTagCompound> reader){
+        if(!shouldSample()){
+            reader.accept(tag);
+            return;
+        }
+        long start = System.nanoTime();
+        reader.accept(tag);
+        record(entity, Operation.READ_DATA, System.nanoTime() - start, tag);
+    }
+
+    /**
+     * Records a sampled operation, see {@link #shouldSample()}.
+     */
+    static void record(BaseBlockEntity entity, Operation operation, long nanos, NBTTagCompound tag){
+        recordSized(entity, operation, nanos, () -> tag == null ? 0 : sizeOf(tag));
+    }
+
+    /**
+     * Records a sampled operation whose data size is already known, see {@link #shouldSample()}.
+     */
+    static void record(BaseBlockEntity entity, Operation operation, long nanos, long bytes){
+        recordSized(entity, operation, nanos, () -> bytes);
+    }
+
+    private static void recordSized(BaseBlockEntity entity, Operation operation, long nanos, LongSupplier size){
+        World world = entity.getWorld();
+        // Block entities being loaded from disk don't have a world yet
+        if(world != null && world.isRemote)
+            return;
+
+        // Each sampled operation stands in for all operations since the previous sample
+        int weight = sampleRate;
+        long bytes = size.getAsLong();
+        Bucket bucket = getBucket();
+        bucket.types.computeIfAbsent(entity.getType(), t -> Stats.create())[operation.ordinal()].record(nanos, bytes, weight);
+        if(world != null){
+            Pair<Integer,ChunkPos> chunk = Pair.of(world.provider.getDimension(), new ChunkPos(entity.getPos()));
+            bucket.chunks.computeIfAbsent(chunk, c -> Stats.create())[operation.ordinal()].record(nanos, bytes, weight);
+        }
+    }
+
+    private static Bucket getBucket(){
+        long epoch = System.nanoTime() / BUCKET_NANOS;
+        int index = (int)Math.floorMod(epoch, WINDOW_BUCKETS);
+        Bucket bucket = BUCKETS.get(index);
+        while(bucket == null || bucket.epoch < epoch){
+            Bucket newBucket = new Bucket(epoch);
+            if(BUCKETS.compareAndSet(index, bucket, newBucket))
+                return newBucket;
+            bucket = BUCKETS.get(index);
+        }
+        return bucket;
+    }
+
+    /**
+     * @return the size of the given tag when written to a stream in bytes
+     */
+    static long sizeOf(NBTTagCompound tag){
+        CountingOutputStream output = new CountingOutputStream(ByteStreams.nullOutputStream());
+        try{
+            CompressedStreamTools.write(tag, new DataOutputStream(output));
+        }catch(IOException e){
+            return 0;
+        }
+        return output.getCount();
+    }
+
+    public enum Operation {
+        TICK, WRITE_DATA, WRITE_CLIENT_DATA, READ_DATA
+    }
+
+    public static final class Report<K> {
+
+        private final K key;
+        private final long[] totalNanos = new long[Operation.values().length];
+        private final long[] counts = new long[Operation.values().length];
+        private final long[] bytes = new long[Operation.values().length];
+        private final long[][] times = new long[Operation.values().length][Histogram.BUCKETS];
+
+        private Report(K key){
+            this.key = key;
+        }
+
+        private void add(Stats[] stats){
+            for(int i = 0; i < stats.length; i++){
+                this.totalNanos[i] += stats[i].nanos.sum();
+                this.counts[i] += stats[i].count.sum();
+                this.bytes[i] += stats[i].bytes.sum();
+                stats[i].time.addTo(this.times[i]);
+            }
+        }
+
+        public K getKey(){
+            return this.key;
+        }
+
+        /**
+         * @return the total time spent on all operations in nanoseconds
+         */
+        public long getTotalNanos(){
+            long total = 0;
+            for(long nanos : this.totalNanos)
+                total += nanos;
+            return total;
+        }
+
+        /**
+         * @return the total time spent on the given operation in nanoseconds
+         */
+        public long getTotalNanos(Operation operation){
+            return this.totalNanos[operation.ordinal()];
+        }
+
+        /**
+         * @return the number of times the given operation was performed
+         */
+        public long getCount(Operation operation){
+            return this.counts[operation.ordinal()];
+        }
+
+        /**
+         * Estimates the 99th percentile duration of the given operation. The returned value is the upper bound of the power of two
+         * bucket the percentile falls into, like {@link LatencyHistogram#getPercentileNanos(double)}.
+         * @return the 99th percentile duration of the given operation in nanoseconds, or {@code 0} if the operation was not measured
+         */
+        public long getP99Nanos(Operation operation){
+            long[] counts = this.times[operation.ordinal()];
+            long count = 0;
+            for(long bucketCount : counts)
+                count += bucketCount;
+            if(count == 0)
+                return 0;
+
+            long target = (long)Math.ceil(count * 0.99);
+            long seen = 0;
+            for(int i = 0; i < counts.length; i++){
+                seen += counts[i];
+                if(seen >= target && counts[i] > 0)
+                    return (1L << (i + 1)) - 1;
+            }
+            return 0;
+        }
+
+        /**
+         * @return the total size of the nbt written or read by the given operation in bytes
+         */
+        public long getNbtBytes(Operation operation){
+            return this.bytes[operation.ordinal()];
+        }
+    }
+
+    private static final class Bucket {
+
+        private final long epoch;
+        private final Map<BaseBlockEntityType<?>,Stats[]> types = new ConcurrentHashMap<>();
+        private final Map<Pair<Integer,ChunkPos>,Stats[]> chunks = new ConcurrentHashMap<>();
+
+        private Bucket(long epoch){
+            this.epoch = epoch;
+        }
+    }
+
+    private static final class Stats {
+
+        static Stats[] create(){
+            Stats[] stats = new Stats[Operation.values().length];
+            for(int i = 0; i < stats.length; i++)
+                stats[i] = new Stats();
+            return stats;
+        }
+
+        private final LongAdder nanos = new LongAdder();
+        private final LongAdder count = new LongAdder();
+        private final LongAdder bytes = new LongAdder();
+        private final Histogram time = new Histogram();
+
+        void record(long nanos, long bytes, int weight){
+            this.nanos.add(nanos * weight);
+            this.count.add(weight);
+            this.bytes.add(bytes * weight);
+            this.time.record(nanos);
+        }
+    }
+
+    /**
+     * Power of two buckets like {@link LatencyHistogram}, but small enough to keep one for every chunk.
+     * Durations of {@code 2^31} nanoseconds or more are all counted in the last bucket.
+     */
+    private static final class Histogram {
+
+        private static final int BUCKETS = 32;
+
+        private final AtomicIntegerArray counts = new AtomicIntegerArray(BUCKETS);
+
+        void record(long nanos){
+            this.counts.incrementAndGet(nanos <= 0 ? 0 : Math.min(BUCKETS - 1, 63 - Long.numberOfLeadingZeros(nanos)));
+        }
+
+        void addTo(long[] counts){
+            for(int i = 0; i < BUCKETS; i++)
+                counts[i] += this.counts.get(i);
+        }
+    }
+}
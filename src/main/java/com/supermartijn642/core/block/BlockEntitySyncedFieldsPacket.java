@@ -0,0 +1,62 @@
+package com.supermartijn642.core.block;
+
+import com.supermartijn642.core.network.BlockEntityBasePacket;
+import com.supermartijn642.core.network.PacketContext;
+import io.netty.buffer.Unpooled;
+import net.minecraft.network.PacketBuffer;
+import net.minecraft.tileentity.TileEntity;
+
+/**
+ * Sends the changed {@link SyncedField}s of a {@link BaseBlockEntity} to clients.
+ * <p>
+ * Created 17/10/2026 by SuperMartijn642
+ */
+public final class BlockEntitySyncedFieldsPacket extends BlockEntityBasePacket<TileEntity> {
+
+    /**
+     * Block entity whose changed fields are written, only used when sending
+     */
+    private BaseBlockEntity entity;
+    private long fields;
+    /**
+     * Mask of the changed fields followed by their values, as written by {@link BaseBlockEntity#writeSyncedFields(PacketBuffer, long)}, only used when receiving
+     */
+    private byte[] data;
+
+    /**
+     * The packet must be sent right away, as the fields' values are only written once the packet is encoded.
+     */
+    BlockEntitySyncedFieldsPacket(BaseBlockEntity entity, long fields){
+        super(entity.getWorld(), entity.getPos());
+        this.entity = entity;
+        this.fields = fields;
+    }
+
+    public BlockEntitySyncedFieldsPacket(){
+    }
+
+    @Override
+    public void write(PacketBuffer buffer){
+        super.write(buffer);
+        this.entity.writeSyncedFields(buffer, this.fields);
+    }
+
+    @Override
+    public void read(PacketBuffer buffer){
+        super.read(buffer);
+        // The fields' types are only known once the block entity is found, so keep the remaining bytes until then
+        this.data = new byte[buffer.readableBytes()];
+        buffer.readBytes(this.data);
+    }
+
+    @Override
+    public boolean verify(PacketContext context){
+        return context.getOriginatingSide().isServer();
+    }
+
+    @Override
+    protected void handle(TileEntity entity, PacketContext context){
+        if(entity instanceof BaseBlockEntity)
+            ((BaseBlockEntity)entity).readSyncedFields(new PacketBuffer(Unpooled.wrappedBuffer(this.data)));
+    }
+}
@@ -0,0 +1,70 @@
+package com.supermartijn642.core.block;
+
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.util.ITickable;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.MathHelper;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraftforge.fml.common.Loader;
+
+/**
+ * Decides when {@link TickableBlockEntity#update()} gets called for {@link BaseBlockEntity}s, based on their type's
+ * {@link BaseBlockEntityType#getTickInterval() tick interval} and whether they are {@link BaseBlockEntity#sleep() sleeping}.
+ * <p>
+ * Created 17/10/2026 by SuperMartijn642
+ */
+public final class BlockEntityTickScheduler {
+
+    /**
+     * SpongeForge ticks block entities itself, so ticks can't be scheduled when it is installed
+     */
+    private static final boolean SUPPORTED = !Loader.isModLoaded("sponge");
+
+    /**
+     * @return whether tick intervals, sleeping, lazy data loading and async saving are supported. These are not supported when
+     * SpongeForge is installed, in which case block entities are ticked every tick and load and save their data with their chunk.
+     */
+    public static boolean isSupported(){
+        return SUPPORTED;
+    }
+
+    /**
+     * Do not use!
+     */
+    @Deprecated
+    public static void tick(ITickable tickable){
+        if(tickable instanceof BaseBlockEntity){
+            BaseBlockEntity entity = (BaseBlockEntity)tickable;
+            long time = entity.getWorld().getTotalWorldTime();
+            if(time < entity.nextTick)
+                return;
+            int interval = entity.getType().getTickInterval();
+            // Spread block entities of the same type evenly across ticks based on their position
+            if(interval > 1 && Math.floorMod(time + MathHelper.getPositionRandom(entity.getPos()), interval) != 0)
+                return;
+            entity.ensureDataLoaded();
+            if(BlockEntityProfiler.shouldSample()){
+                long start = System.nanoTime();
+                tickable.update();
+                BlockEntityProfiler.record(entity, BlockEntityProfiler.Operation.TICK, System.nanoTime() - start, null);
+                return;
+            }
+        }
+        tickable.update();
+    }
+
+    /**
+     * Do not use!
+     */
+    @Deprecated
+    public static void onNeighborChanged(World world, BlockPos pos, IBlockState state){
+        if(!state.getBlock().hasTileEntity(state))
+            return;
+        Chunk chunk = world.getChunkProvider().getLoadedChunk(pos.getX() >> 4, pos.getZ() >> 4);
+        TileEntity entity = chunk == null ? null : chunk.getTileEntity(pos, Chunk.EnumCreateEntityType.CHECK);
+        if(entity instanceof BaseBlockEntity)
+            ((BaseBlockEntity)entity).wakeUp();
+    }
+}
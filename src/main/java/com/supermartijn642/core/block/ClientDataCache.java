@@ -0,0 +1,115 @@
+package com.supermartijn642.core.block;
+
+import net.minecraft.nbt.CompressedStreamTools;
+import net.minecraft.nbt.NBTSizeTracker;
+import net.minecraft.nbt.NBTTagCompound;
+
+import java.io.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caches the data written by {@link BaseBlockEntity#writeClientData()} server-side for block entity types with {@link BaseBlockEntityType#cacheClientData()},
+ * such that players who start watching a chunk don't all cause the data to be written again. The data is stored on the block entity itself,
+ * together with its encoded form, which is sent in update packets as is rather than being written for every player.
+ * New entries are not cached whilst the total size of the cache exceeds {@link #MAX_CACHED_BYTES}.
+ * <p>
+ * Created 17/10/2026 by SuperMartijn642
+ */
+final class ClientDataCache {
+
+    private static final long MAX_CACHED_BYTES = 32 * 1024 * 1024;
+    /**
+     * Larger payloads are not cached, as they would take up a large part of the cache
+     */
+    private static final long MAX_ENTRY_BYTES = 64 * 1024;
+    /**
+     * Same limit as used for nbt in packets
+     */
+    private static final long MAX_DECODED_BYTES = 2097152L;
+
+    /**
+     * Total size of the encoded data of all cached entries
+     */
+    private static final AtomicLong CACHED_BYTES = new AtomicLong();
+
+    /**
+     * Gets the client data for the given block entity from the cache, or writes and caches it if it is not present.
+     * @return a copy of the client data, or {@code null} if the block entity has no client data
+     */
+    static NBTTagCompound getData(BaseBlockEntity entity){
+        NBTTagCompound data = entity.cachedClientData == null ? write(entity) : entity.cachedClientData.copy();
+        return data.hasNoTags() ? null : data;
+    }
+
+    /**
+     * Gets the encoded client data for the given block entity from the cache, or writes and caches it if it is not present.
+     * @return the encoded client data, which is shared and must not be modified, or {@code null} if the block entity has no client data
+     */
+    static byte[] getEncoded(BaseBlockEntity entity){
+        if(entity.cachedClientData == null){
+            NBTTagCompound data = write(entity);
+            // Data which is too large to be cached still needs to be encoded
+            if(entity.cachedClientData == null)
+                return data.hasNoTags() ? null : encode(data);
+        }
+        return entity.cachedClientData.hasNoTags() ? null : entity.encodedClientData;
+    }
+
+    /**
+     * Removes the cached client data for the given block entity.
+     */
+    static void invalidate(BaseBlockEntity entity){
+        if(entity.cachedClientData == null)
+            return;
+        CACHED_BYTES.addAndGet(-entity.encodedClientData.length);
+        entity.cachedClientData = null;
+        entity.encodedClientData = null;
+    }
+
+    /**
+     * Writes the client data of the given block entity and caches it if there is room for it.
+     * @return the written client data, which is not shared with the cache
+     */
+    private static NBTTagCompound write(BaseBlockEntity entity){
+        // Profile the write here, such that its size can be taken from the encoded data
+        boolean sample = BlockEntityProfiler.shouldSample();
+        long start = sample ? System.nanoTime() : 0;
+        NBTTagCompound data = entity.writeClientData();
+        long nanos = sample ? System.nanoTime() - start : 0;
+        if(data == null)
+            data = new NBTTagCompound();
+        byte[] encoded = encode(data);
+        if(sample)
+            BlockEntityProfiler.record(entity, BlockEntityProfiler.Operation.WRITE_CLIENT_DATA, nanos, encoded.length);
+
+        if(encoded.length <= MAX_ENTRY_BYTES){
+            if(CACHED_BYTES.addAndGet(encoded.length) <= MAX_CACHED_BYTES){
+                entity.cachedClientData = data.copy();
+                entity.encodedClientData = encoded;
+            }else
+                CACHED_BYTES.addAndGet(-encoded.length);
+        }
+        return data;
+    }
+
+    static byte[] encode(NBTTagCompound data){
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try{
+            CompressedStreamTools.write(data, new DataOutputStream(output));
+        }catch(IOException e){
+            throw new RuntimeException("Failed to encode client data!", e);
+        }
+        return output.toByteArray();
+    }
+
+    /**
+     * Decodes client data encoded by {@link #encode(NBTTagCompound)}.
+     */
+    static NBTTagCompound decode(byte[] data){
+        try{
+            return CompressedStreamTools.read(new DataInputStream(new ByteArrayInputStream(data)), new NBTSizeTracker(MAX_DECODED_BYTES));
+        }catch(IOException e){
+            throw new RuntimeException("Failed to decode client data!", e);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.supermartijn642.core.block;
+
+import net.minecraft.nbt.NBTBase;
+import net.minecraft.nbt.NBTTagString;
+import net.minecraft.network.PacketBuffer;
+
+/**
+ * Holds an enum value. The value is saved by name, such that constants may be reordered.
+ * <p>
+ * Created 17/10/2026 by SuperMartijn642
+ */
+public class SyncedEnum<T extends Enum<T>> extends SyncedField {
+
+    private final T[] constants;
+    private T value;
+
+    public SyncedEnum(String name, T initialValue){
+        super(name);
+        if(initialValue == null)
+            throw new IllegalArgumentException("Initial value must not be null!");
+        this.constants = initialValue.getDeclaringClass().getEnumConstants();
+        this.value = initialValue;
+    }
+
+    public T get(){
+        return this.value;
+    }
+
+    public void set(T value){
+        if(value == null)
+            throw new IllegalArgumentException("Value must not be null!");
+        if(this.value != value){
+            this.value = value;
+            this.markChanged();
+        }
+    }
+
+    @Override
+    protected void write(PacketBuffer buffer){
+        buffer.writeVarInt(this.value.ordinal());
+    }
+
+    @Override
+    protected void read(PacketBuffer buffer){
+        int ordinal = buffer.readVarInt();
+        if(ordinal < 0 || ordinal >= this.constants.length)
+            throw new RuntimeException("Received invalid ordinal '" + ordinal + "' for enum '" + this.value.getDeclaringClass().getName() + "'!");
+        this.value = this.constants[ordinal];
+    }
+
+    @Override
+    protected NBTBase writeNBT(){
+        return new NBTTagString(this.value.name());
+    }
+
+    @Override
+    protected void readNBT(NBTBase tag){
+        if(!(tag instanceof NBTTagString))
+            return;
+        String name = ((NBTTagString)tag).getString();
+        for(T constant : this.constants){
+            if(constant.name().equals(name)){
+                this.value = constant;
+                return;
+            }
+        }
+    }
+}
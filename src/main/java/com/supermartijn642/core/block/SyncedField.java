@@ -0,0 +1,58 @@
+package com.supermartijn642.core.block;
+
+import net.minecraft.nbt.NBTBase;
+import net.minecraft.network.PacketBuffer;
+
+/**
+ * A value on a {@link BaseBlockEntity} which is saved with the block entity and automatically synced to clients.
+ * Only changed fields are sent to clients, once per tick.
+ * Fields must be registered through {@link BaseBlockEntity#registerSyncedField(SyncedField)} in the same order on both sides.
+ * <p>
+ * Created 17/10/2026 by SuperMartijn642
+ */
+public abstract class SyncedField {
+
+    private final String name;
+    BaseBlockEntity owner;
+    int index;
+
+    /**
+     * @param name key under which the field is saved
+     */
+    protected SyncedField(String name){
+        this.name = name;
+    }
+
+    public String getName(){
+        return this.name;
+    }
+
+    /**
+     * Marks the field to be sent to clients. This is called automatically when the value is set, but must be called
+     * manually when the value is modified in place.
+     */
+    public void markChanged(){
+        if(this.owner != null)
+            this.owner.syncedFieldChanged(this.index);
+    }
+
+    /**
+     * Writes the field's value to be sent to clients.
+     */
+    protected abstract void write(PacketBuffer buffer);
+
+    /**
+     * Reads a value written by {@link #write(PacketBuffer)}.
+     */
+    protected abstract void read(PacketBuffer buffer);
+
+    /**
+     * Writes the field's value to be saved.
+     */
+    protected abstract NBTBase writeNBT();
+
+    /**
+     * Reads a value written by {@link #writeNBT()}.
+     */
+    protected abstract void readNBT(NBTBase tag);
+}
@@ -0,0 +1,55 @@
+package com.supermartijn642.core.block;
+
+import net.minecraft.nbt.NBTBase;
+import net.minecraft.nbt.NBTPrimitive;
+import net.minecraft.nbt.NBTTagInt;
+import net.minecraft.network.PacketBuffer;
+
+/**
+ * Created 17/10/2026 by SuperMartijn642
+ */
+public class SyncedInt extends SyncedField {
+
+    private int value;
+
+    public SyncedInt(String name, int initialValue){
+        super(name);
+        this.value = initialValue;
+    }
+
+    public SyncedInt(String name){
+        this(name, 0);
+    }
+
+    public int get(){
+        return this.value;
+    }
+
+    public void set(int value){
+        if(this.value != value){
+            this.value = value;
+            this.markChanged();
+        }
+    }
+
+    @Override
+    protected void write(PacketBuffer buffer){
+        buffer.writeVarInt(this.value);
+    }
+
+    @Override
+    protected void read(PacketBuffer buffer){
+        this.value = buffer.readVarInt();
+    }
+
+    @Override
+    protected NBTBase writeNBT(){
+        return new NBTTagInt(this.value);
+    }
+
+    @Override
+    protected void readNBT(NBTBase tag){
+        if(tag instanceof NBTPrimitive)
+            this.value = ((NBTPrimitive)tag).getInt();
+    }
+}
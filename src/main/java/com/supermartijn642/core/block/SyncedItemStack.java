@@ -0,0 +1,65 @@
+package com.supermartijn642.core.block;
+
+import net.minecraft.item.ItemStack;
+import net.minecraft.nbt.NBTBase;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.network.PacketBuffer;
+
+import java.io.IOException;
+
+/**
+ * Holds an item stack. Changes made directly to the stack are not detected, call {@link #markChanged()} after modifying it.
+ * <p>
+ * Created 17/10/2026 by SuperMartijn642
+ */
+public class SyncedItemStack extends SyncedField {
+
+    private ItemStack value;
+
+    public SyncedItemStack(String name, ItemStack initialValue){
+        super(name);
+        this.value = initialValue;
+    }
+
+    public SyncedItemStack(String name){
+        this(name, ItemStack.EMPTY);
+    }
+
+    public ItemStack get(){
+        return this.value;
+    }
+
+    public void set(ItemStack value){
+        if(value == null)
+            value = ItemStack.EMPTY;
+        if(!ItemStack.areItemStacksEqual(this.value, value)){
+            this.value = value;
+            this.markChanged();
+        }
+    }
+
+    @Override
+    protected void write(PacketBuffer buffer){
+        buffer.writeItemStack(this.value);
+    }
+
+    @Override
+    protected void read(PacketBuffer buffer){
+        try{
+            this.value = buffer.readItemStack();
+        }catch(IOException e){
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    protected NBTBase writeNBT(){
+        return this.value.writeToNBT(new NBTTagCompound());
+    }
+
+    @Override
+    protected void readNBT(NBTBase tag){
+        if(tag instanceof NBTTagCompound)
+            this.value = new ItemStack((NBTTagCompound)tag);
+    }
+}
@@ -8,7 +8,9 @@ import net.minecraft.util.ITickable;
 public interface TickableBlockEntity extends ITickable {
 
     /**
-     * Called once per tick.
+     * Called once per tick, or once every {@link BaseBlockEntityType#getTickInterval()} ticks for {@link BaseBlockEntity}s.
+     * Sleeping {@link BaseBlockEntity}s are not ticked, see {@link BaseBlockEntity#sleep()}.
+     * When SpongeForge is installed, all block entities are ticked every tick, see {@link BlockEntityTickScheduler#isSupported()}.
      */
     void update();
 }
@@ -0,0 +1,82 @@
+package com.supermartijn642.core.mixin;
+
+import com.supermartijn642.core.block.AsyncBlockEntitySaves;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.storage.AnvilChunkLoader;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.Redirect;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+import java.util.Map;
+
+/**
+ * Created 17/10/2026 by SuperMartijn642
+ */
+@Mixin(AnvilChunkLoader.class)
+public class AnvilChunkLoaderMixin {
+
+    @Shadow
+    protected void addChunkToPending(ChunkPos pos, NBTTagCompound compound){
+    }
+
+    @Inject(
+        method = "saveChunk",
+        at = @At("HEAD")
+    )
+    private void saveChunkHead(World world, Chunk chunk, CallbackInfo ci){
+        AsyncBlockEntitySaves.beginChunk();
+    }
+
+    @Redirect(
+        method = "saveChunk",
+        at = @At(
+            value = "INVOKE",
+            target = "Lnet/minecraft/world/chunk/storage/AnvilChunkLoader;addChunkToPending(Lnet/minecraft/util/math/ChunkPos;Lnet/minecraft/nbt/NBTTagCompound;)V"
+        )
+    )
+    private void saveChunk(AnvilChunkLoader loader, ChunkPos pos, NBTTagCompound compound){
+        AsyncBlockEntitySaves.endChunk(compound);
+        this.addChunkToPending(pos, compound);
+    }
+
+    @Inject(
+        method = "saveChunk",
+        at = @At("RETURN")
+    )
+    private void saveChunkReturn(World world, Chunk chunk, CallbackInfo ci){
+        // Make sure the state is cleared in case saving failed
+        AsyncBlockEntitySaves.endChunk(null);
+    }
+
+    @Inject(
+        method = "writeChunkData",
+        at = @At("HEAD"),
+        cancellable = true
+    )
+    private void writeChunkData(ChunkPos pos, NBTTagCompound compound, CallbackInfo ci){
+        // Keep the previously written chunk if any block entity data failed to save
+        if(!AsyncBlockEntitySaves.awaitChunk(compound))
+            ci.cancel();
+    }
+
+    @Redirect(
+        method = "loadChunk__Async",
+        at = @At(
+            value = "INVOKE",
+            target = "Ljava/util/Map;get(Ljava/lang/Object;)Ljava/lang/Object;"
+        ),
+        remap = false
+    )
+    private Object loadChunk(Map<ChunkPos,NBTTagCompound> chunksToSave, Object pos){
+        // Chunks which are still waiting to be written are read from memory
+        NBTTagCompound compound = chunksToSave.get(pos);
+        // Read the previously written chunk instead if any block entity data failed to save
+        return AsyncBlockEntitySaves.awaitChunk(compound) ? compound : null;
+    }
+}
@@ -0,0 +1,33 @@
+package com.supermartijn642.core.mixin;
+
+import com.supermartijn642.core.block.BaseBlockEntity;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+
+/**
+ * Created 17/10/2026 by SuperMartijn642
+ */
+@Mixin(targets = "net.minecraft.block.state.BlockStateContainer$StateImplementation")
+public class BlockStateMixin {
+
+    @Inject(
+        method = "getComparatorInputOverride",
+        at = @At("HEAD")
+    )
+    private void getComparatorInputOverride(World world, BlockPos pos, CallbackInfoReturnable<Integer> ci){
+        // Make sure blocks see the block entity's data when computing their comparator output
+        //noinspection DataFlowIssue
+        IBlockState state = (IBlockState)(Object)this;
+        if(state.getBlock().hasTileEntity(state)){
+            TileEntity entity = world.getTileEntity(pos);
+            if(entity instanceof BaseBlockEntity)
+                ((BaseBlockEntity)entity).ensureDataLoaded();
+        }
+    }
+}
@@ -33,7 +33,8 @@ public class CoreLibMixinPlugin implements IMixinConfigPlugin {
 
     @Override
     public boolean shouldApplyMixin(String targetClassName, String mixinClassName){
-        return !(this.isSpongeForgeLoaded && mixinClassName.endsWith(".ForgeHooksMixin"));
+        // SpongeForge redirects block entity ticking itself
+        return !(this.isSpongeForgeLoaded && (mixinClassName.endsWith(".ForgeHooksMixin") || mixinClassName.endsWith(".WorldMixin") || mixinClassName.endsWith(".AnvilChunkLoaderMixin")));
     }
 
     @Override
@@ -0,0 +1,41 @@
+package com.supermartijn642.core.mixin;
+
+import com.supermartijn642.core.block.BlockEntityTickScheduler;
+import net.minecraft.block.Block;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.util.ITickable;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Redirect;
+
+/**
+ * Created 17/10/2026 by SuperMartijn642
+ */
+@Mixin(World.class)
+public class WorldMixin {
+
+    @Redirect(
+        method = "updateEntities",
+        at = @At(
+            value = "INVOKE",
+            target = "Lnet/minecraft/util/ITickable;update()V"
+        )
+    )
+    private void updateEntities(ITickable tickable){
+        BlockEntityTickScheduler.tick(tickable);
+    }
+
+    @Redirect(
+        method = "neighborChanged",
+        at = @At(
+            value = "INVOKE",
+            target = "Lnet/minecraft/block/state/IBlockState;neighborChanged(Lnet/minecraft/world/World;Lnet/minecraft/util/math/BlockPos;Lnet/minecraft/block/Block;Lnet/minecraft/util/math/BlockPos;)V"
+        )
+    )
+    private void neighborChanged(IBlockState state, World world, BlockPos pos, Block block, BlockPos fromPos){
+        state.neighborChanged(world, pos, block, fromPos);
+        BlockEntityTickScheduler.onNeighborChanged(world, pos, state);
+    }
+}
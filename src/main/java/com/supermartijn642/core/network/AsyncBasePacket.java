@@ -0,0 +1,22 @@
+package com.supermartijn642.core.network;
+
+/**
+ * Created 17/10/2026 by SuperMartijn642
+ */
+public interface AsyncBasePacket extends BasePacket {
+
+    /**
+     * Handles the packet on one of CoreLib's worker threads. This should be used for expensive work such as decompression,
+     * searching, or path finding. The world must not be modified here, instead any changes should be applied in the returned continuation.
+     * When too many async packets are waiting for a worker thread, the packet is dropped instead.
+     * @return a task to be run on the main thread afterwards, or {@code null}
+     */
+    Runnable handleAsync(PacketContext context);
+
+    /**
+     * Async packets are handled through {@link #handleAsync(PacketContext)}, so this will never be called.
+     */
+    @Override
+    default void handle(PacketContext context){
+    }
+}
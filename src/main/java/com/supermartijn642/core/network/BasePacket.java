@@ -32,4 +32,14 @@ public interface BasePacket {
 
     void handle(PacketContext context);
 
+    /**
+     * Gets a key identifying what state this packet updates, such that only the latest packet for the key needs to be sent.
+     * While a packet is waiting in a player's bundle, a newer packet of the same class with an equal key will replace it.
+     * This only has effect for channels with bundling enabled, see {@link PacketChannel#enableBundling()}.
+     * @return a key with proper {@code equals} and {@code hashCode} methods, or {@code null} if the packet should never be replaced
+     */
+    default Object getCoalescingKey(){
+        return null;
+    }
+
 }
@@ -1,6 +1,7 @@
 package com.supermartijn642.core.network;
 
 import com.supermartijn642.core.CoreSide;
+import com.supermartijn642.core.util.Pair;
 import net.minecraft.network.PacketBuffer;
 import net.minecraft.tileentity.TileEntity;
 import net.minecraft.util.math.BlockPos;
@@ -59,6 +60,11 @@ public abstract class BlockEntityBasePacket<T extends TileEntity> extends BlockP
             this.dimension = DimensionType.getById(buffer.readInt());
     }
 
+    @Override
+    protected Object getPositionCoalescingKey(){
+        return Pair.of(this.dimension, this.pos.toImmutable());
+    }
+
     @Override
     protected void handle(BlockPos pos, PacketContext context){
         T tile = this.getTileEntity(context);
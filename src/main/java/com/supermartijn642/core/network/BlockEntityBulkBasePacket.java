@@ -0,0 +1,181 @@
+package com.supermartijn642.core.network;
+
+import com.google.common.reflect.TypeToken;
+import com.supermartijn642.core.CoreSide;
+import net.minecraft.network.PacketBuffer;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.DimensionType;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Created 17/10/2026 by SuperMartijn642
+ */
+public abstract class BlockEntityBulkBasePacket<T extends TileEntity, D> implements BasePacket {
+
+    /**
+     * Block entity class per packet class, as declared by the packet's type argument
+     */
+    private static final ClassValue<Class<?>> BLOCK_ENTITY_CLASSES = new ClassValue<Class<?>>() {
+        @Override
+        protected Class<?> computeValue(Class<?> type){
+            // Resolves to TileEntity if the packet class doesn't specify its block entity type
+            return TypeToken.of(type).resolveType(BlockEntityBulkBasePacket.class.getTypeParameters()[0]).getRawType();
+        }
+    };
+
+    public DimensionType dimension;
+    private final List<BlockPos> positions = new ArrayList<>();
+    private final List<D> data = new ArrayList<>();
+
+    public BlockEntityBulkBasePacket(){
+    }
+
+    /**
+     * Grabs the tile entities in {@code dimension}.
+     * @param dimension dimension of the tile entities
+     */
+    public BlockEntityBulkBasePacket(DimensionType dimension){
+        this.dimension = dimension;
+    }
+
+    /**
+     * Grabs the tile entities in {@code world}.
+     * @param world world the tile entities are in
+     */
+    public BlockEntityBulkBasePacket(World world){
+        this(world == null ? null : world.provider.getDimensionType());
+    }
+
+    /**
+     * Adds an entry for the tile entity at {@code pos}.
+     * @param pos  position of the tile entity
+     * @param data data to be handled for the tile entity
+     */
+    public BlockEntityBulkBasePacket<T,D> add(BlockPos pos, D data){
+        this.positions.add(pos.toImmutable());
+        this.data.add(data);
+        return this;
+    }
+
+    /**
+     * @return the number of entries in the packet
+     */
+    public int size(){
+        return this.positions.size();
+    }
+
+    @Override
+    public void write(PacketBuffer buffer){
+        buffer.writeBoolean(this.dimension != null);
+        if(this.dimension != null)
+            buffer.writeInt(this.dimension.getId());
+
+        // Order the entries by chunk, such that each chunk only needs to be looked up once when handling
+        List<Integer> order = new ArrayList<>(this.positions.size());
+        for(int i = 0; i < this.positions.size(); i++)
+            order.add(i);
+        order.sort(Comparator.comparingInt((Integer i) -> this.positions.get(i).getX() >> 4).thenComparingInt(i -> this.positions.get(i).getZ() >> 4));
+
+        // Positions are written as the difference with the previous position
+        buffer.writeVarInt(order.size());
+        int lastX = 0, lastY = 0, lastZ = 0;
+        for(int i : order){
+            BlockPos pos = this.positions.get(i);
+            buffer.writeVarInt(zigZag(pos.getX() - lastX));
+            buffer.writeVarInt(zigZag(pos.getY() - lastY));
+            buffer.writeVarInt(zigZag(pos.getZ() - lastZ));
+            lastX = pos.getX();
+            lastY = pos.getY();
+            lastZ = pos.getZ();
+            this.writeData(this.data.get(i), buffer);
+        }
+    }
+
+    @Override
+    public void read(PacketBuffer buffer){
+        if(buffer.readBoolean())
+            this.dimension = DimensionType.getById(buffer.readInt());
+
+        int count = buffer.readVarInt();
+        // Every entry takes at least 3 bytes, so don't trust larger counts
+        if(count < 0 || count > buffer.readableBytes() / 3)
+            throw new IllegalArgumentException("Received invalid entry count '" + count + "'!");
+        int x = 0, y = 0, z = 0;
+        for(int i = 0; i < count; i++){
+            x += unZigZag(buffer.readVarInt());
+            y += unZigZag(buffer.readVarInt());
+            z += unZigZag(buffer.readVarInt());
+            this.positions.add(new BlockPos(x, y, z));
+            this.data.add(this.readData(buffer));
+        }
+    }
+
+    @Override
+    public void handle(PacketContext context){
+        World world = this.getWorld(context);
+        if(world == null)
+            return;
+
+        // Remember the last looked up chunk's position, such that positions in a chunk which isn't loaded are skipped without looking it up again
+        Class<?> blockEntityClass = BLOCK_ENTITY_CLASSES.get(this.getClass());
+        Chunk chunk = null;
+        int lastChunkX = 0, lastChunkZ = 0;
+        boolean lookedUp = false;
+        for(int i = 0; i < this.positions.size(); i++){
+            BlockPos pos = this.positions.get(i);
+            int chunkX = pos.getX() >> 4, chunkZ = pos.getZ() >> 4;
+            if(!lookedUp || lastChunkX != chunkX || lastChunkZ != chunkZ){
+                chunk = world.getChunkProvider().getLoadedChunk(chunkX, chunkZ);
+                lastChunkX = chunkX;
+                lastChunkZ = chunkZ;
+                lookedUp = true;
+            }
+            if(chunk == null)
+                continue;
+
+            // Skip block entities of the wrong type, rather than letting them abort the remaining positions
+            TileEntity tile = chunk.getTileEntity(pos, Chunk.EnumCreateEntityType.CHECK);
+            if(!blockEntityClass.isInstance(tile))
+                continue;
+            //noinspection unchecked
+            this.handle((T)tile, this.data.get(i), context);
+        }
+    }
+
+    /**
+     * Writes the data for a single entry.
+     */
+    protected abstract void writeData(D data, PacketBuffer buffer);
+
+    /**
+     * Reads the data for a single entry written by {@link #writeData(Object, PacketBuffer)}.
+     */
+    protected abstract D readData(PacketBuffer buffer);
+
+    /**
+     * Handles a single entry. Entries are handled grouped by chunk, rather than in the order they were added.
+     * Entries whose tile entity is not loaded or is not of type {@code T} are skipped.
+     */
+    protected abstract void handle(T tile, D data, PacketContext context);
+
+    private World getWorld(PacketContext context){
+        return this.dimension == null ? context.getWorld() :
+            context.getHandlingSide() == CoreSide.CLIENT ?
+                context.getWorld().provider.getDimensionType() == this.dimension ? context.getWorld() : null :
+                context.getWorld().getMinecraftServer().getWorld(this.dimension.getId());
+    }
+
+    private static int zigZag(int value){
+        return (value << 1) ^ (value >> 31);
+    }
+
+    private static int unZigZag(int value){
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
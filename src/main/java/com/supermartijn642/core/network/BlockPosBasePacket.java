@@ -37,4 +37,12 @@ public abstract class BlockPosBasePacket implements BasePacket {
     }
 
     protected abstract void handle(BlockPos pos, PacketContext context);
+
+    /**
+     * Creates a coalescing key for the packet's position. Subclasses whose packets only carry the latest state for their
+     * position may return this from {@link #getCoalescingKey()}.
+     */
+    protected Object getPositionCoalescingKey(){
+        return this.pos.toImmutable();
+    }
 }
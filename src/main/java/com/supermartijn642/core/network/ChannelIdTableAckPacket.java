@@ -0,0 +1,27 @@
+package com.supermartijn642.core.network;
+
+import net.minecraft.network.PacketBuffer;
+
+/**
+ * Created 17/10/2026 by SuperMartijn642
+ */
+public final class ChannelIdTableAckPacket implements BasePacket {
+
+    @Override
+    public void write(PacketBuffer buffer){
+    }
+
+    @Override
+    public void read(PacketBuffer buffer){
+    }
+
+    @Override
+    public boolean verify(PacketContext context){
+        return context.getOriginatingSide().isClient();
+    }
+
+    @Override
+    public void handle(PacketContext context){
+        PacketChannel.acknowledgeChannelIds(context.getSendingPlayer());
+    }
+}
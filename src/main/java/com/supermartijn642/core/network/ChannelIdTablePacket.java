@@ -0,0 +1,49 @@
+package com.supermartijn642.core.network;
+
+import com.supermartijn642.core.CoreLib;
+import net.minecraft.network.PacketBuffer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Created 17/10/2026 by SuperMartijn642
+ */
+public final class ChannelIdTablePacket implements BasePacket {
+
+    private List<String> channelNames;
+
+    public ChannelIdTablePacket(List<String> channelNames){
+        this.channelNames = channelNames;
+    }
+
+    public ChannelIdTablePacket(){
+    }
+
+    @Override
+    public void write(PacketBuffer buffer){
+        buffer.writeVarInt(this.channelNames.size());
+        for(String channelName : this.channelNames)
+            buffer.writeString(channelName);
+    }
+
+    @Override
+    public void read(PacketBuffer buffer){
+        int size = buffer.readVarInt();
+        this.channelNames = new ArrayList<>(size);
+        for(int i = 0; i < size; i++)
+            this.channelNames.add(buffer.readString(32767));
+    }
+
+    @Override
+    public boolean verify(PacketContext context){
+        return context.getOriginatingSide().isServer();
+    }
+
+    @Override
+    public void handle(PacketContext context){
+        // This is handled off thread, so the ids are known before any following packets get decoded
+        PacketChannel.setServerChannelIds(this.channelNames);
+        CoreLib.CHANNEL.sendToServer(new ChannelIdTableAckPacket());
+    }
+}
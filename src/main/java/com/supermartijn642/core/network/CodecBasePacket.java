@@ -0,0 +1,23 @@
+package com.supermartijn642.core.network;
+
+import net.minecraft.network.PacketBuffer;
+
+/**
+ * A packet whose data is written and read automatically from its fields annotated with {@link PacketField}.
+ * Fields are written in order of their declaring class, starting with the super class, and then by name.
+ * Boolean fields and whether other fields are {@code null} are packed together into as few bytes as possible.
+ * <p>
+ * Created 17/10/2026 by SuperMartijn642
+ */
+public abstract class CodecBasePacket implements BasePacket {
+
+    @Override
+    public void write(PacketBuffer buffer){
+        PacketCodec.get(this.getClass()).write(this, buffer);
+    }
+
+    @Override
+    public void read(PacketBuffer buffer){
+        PacketCodec.get(this.getClass()).read(this, buffer);
+    }
+}
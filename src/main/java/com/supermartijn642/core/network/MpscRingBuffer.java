@@ -0,0 +1,79 @@
+package com.supermartijn642.core.network;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Created 17/10/2026 by SuperMartijn642
+ */
+final class MpscRingBuffer<T> {
+
+    /*
+     * Bounded lock-free queue for multiple producers and a single consumer.
+     * Each slot carries a sequence number which tells producers and the consumer whether the slot is free or filled.
+     */
+
+    private final int mask;
+    private final AtomicReferenceArray<T> elements;
+    private final AtomicLongArray sequences;
+    private final AtomicLong producerIndex = new AtomicLong();
+    /**
+     * Only accessed by the consumer
+     */
+    private long consumerIndex = 0;
+
+    /**
+     * @param capacity minimum capacity, will be rounded up to a power of two
+     */
+    MpscRingBuffer(int capacity){
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        this.mask = size - 1;
+        this.elements = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        for(int i = 0; i < size; i++)
+            this.sequences.set(i, i);
+    }
+
+    /**
+     * Adds the given element to the queue. May be called from any thread.
+     * @return {@code false} if the queue is full
+     */
+    boolean offer(T element){
+        while(true){
+            long index = this.producerIndex.get();
+            int slot = (int)(index & this.mask);
+            long sequence = this.sequences.get(slot);
+            if(sequence == index){
+                if(this.producerIndex.compareAndSet(index, index + 1)){
+                    this.elements.lazySet(slot, element);
+                    // Publish the element to the consumer
+                    this.sequences.set(slot, index + 1);
+                    return true;
+                }
+            }else if(sequence < index)
+                return false;
+        }
+    }
+
+    /**
+     * Removes the next element from the queue. Must only be called from the consumer thread.
+     * @return the next element or {@code null} if the queue is empty
+     */
+    T poll(){
+        long index = this.consumerIndex;
+        int slot = (int)(index & this.mask);
+        if(this.sequences.get(slot) != index + 1)
+            return null;
+        T element = this.elements.get(slot);
+        this.elements.lazySet(slot, null);
+        this.consumerIndex = index + 1;
+        // Free up the slot for the producers' next lap
+        this.sequences.set(slot, index + this.mask + 1);
+        return element;
+    }
+
+    boolean isEmpty(){
+        return this.sequences.get((int)(this.consumerIndex & this.mask)) != this.consumerIndex + 1;
+    }
+}
@@ -0,0 +1,105 @@
+package com.supermartijn642.core.network;
+
+import io.netty.buffer.ByteBuf;
+import net.minecraft.entity.player.EntityPlayerMP;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+
+import java.util.*;
+
+/**
+ * Created 17/10/2026 by SuperMartijn642
+ */
+public final class NearbyPacketBatch {
+
+    private final PacketChannel channel;
+    private final List<Target> targets = new ArrayList<>();
+
+    NearbyPacketBatch(PacketChannel channel){
+        this.channel = channel;
+    }
+
+    /**
+     * Adds the given {@code packet} to be sent to all players within {@code radius} blocks of the given position in the given {@code world}.
+     * The packet is encoded immediately, later changes to it will not be sent.
+     * @param packet packet to be send
+     */
+    public NearbyPacketBatch add(World world, double x, double y, double z, double radius, BasePacket packet){
+        if(world.isRemote)
+            throw new IllegalStateException("This must only be called server-side!");
+        ByteBuf encodedPacket = this.channel.encodeChecked(packet);
+        this.targets.add(new Target(world.provider.getDimensionType().getId(), x, y, z, radius, encodedPacket, PacketChannel.getCoalescingKey(packet)));
+        return this;
+    }
+
+    /**
+     * Adds the given {@code packet} to be sent to all players within {@code radius} blocks of the given position in the given {@code world}.
+     * The packet is encoded immediately, later changes to it will not be sent.
+     * @param packet packet to be send
+     */
+    public NearbyPacketBatch add(World world, BlockPos pos, double radius, BasePacket packet){
+        return this.add(world, pos.getX() + 0.5, pos.getY() + 0.5, pos.getZ() + 0.5, radius, packet);
+    }
+
+    /**
+     * Sends all added packets. Each player receives all packets meant for them as a single bundle.
+     * The batch is empty afterwards and may be reused.
+     */
+    public void send(){
+        if(this.targets.isEmpty())
+            return;
+
+        try{
+            if(this.channel.isBundling()){
+                for(Target target : this.targets)
+                    PlayerSpatialIndex.forEachPlayerNear(target.dimension, target.x, target.y, target.z, target.radius,
+                        player -> this.channel.addToBundle(player, target.coalescingKey, target.encodedPacket.retainedDuplicate()));
+            }else{
+                Map<EntityPlayerMP,List<Target>> packets = new HashMap<>();
+                for(Target target : this.targets)
+                    PlayerSpatialIndex.forEachPlayerNear(target.dimension, target.x, target.y, target.z, target.radius,
+                        player -> packets.computeIfAbsent(player, p -> new ArrayList<>()).add(target));
+                packets.forEach((player, targets) -> {
+                    // Players receiving a single packet share its frame with other players
+                    if(targets.size() == 1)
+                        targets.get(0).getFrame(this.channel).sendTo(player);
+                    else{
+                        List<ByteBuf> encodedPackets = new ArrayList<>(targets.size());
+                        for(Target target : targets)
+                            encodedPackets.add(target.encodedPacket);
+                        this.channel.sendEncodedToPlayer(player, encodedPackets);
+                    }
+                });
+            }
+        }finally{
+            for(Target target : this.targets)
+                target.encodedPacket.release();
+            this.targets.clear();
+        }
+    }
+
+    private static final class Target {
+
+        private final int dimension;
+        private final double x, y, z, radius;
+        private final ByteBuf encodedPacket;
+        private final Object coalescingKey;
+        private PacketChannel.SharedFrame frame;
+
+        private Target(int dimension, double x, double y, double z, double radius, ByteBuf encodedPacket, Object coalescingKey){
+            this.dimension = dimension;
+            this.x = x;
+            this.y = y;
+            this.z = z;
+            this.radius = radius;
+            this.encodedPacket = encodedPacket;
+            this.coalescingKey = coalescingKey;
+        }
+
+        private PacketChannel.SharedFrame getFrame(PacketChannel channel){
+            if(this.frame == null)
+                this.frame = channel.createSharedFrame(this.encodedPacket);
+            return this.frame;
+        }
+    }
+}
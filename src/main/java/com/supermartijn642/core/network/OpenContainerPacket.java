@@ -5,9 +5,7 @@ import com.supermartijn642.core.gui.BaseContainer;
 import com.supermartijn642.core.gui.BaseContainerType;
 import com.supermartijn642.core.gui.ContainerScreenManager;
 import com.supermartijn642.core.registry.Registries;
-import com.supermartijn642.core.registry.RegistryUtil;
 import net.minecraft.network.PacketBuffer;
-import net.minecraft.util.ResourceLocation;
 
 /**
  * Created 05/08/2022 by SuperMartijn642
@@ -30,20 +28,18 @@ public final class OpenContainerPacket<T extends BaseContainer> implements BaseP
 
     @Override
     public void write(PacketBuffer buffer){
-        buffer.writeString(Registries.MENU_TYPES.getIdentifier(this.handler).toString());
+        buffer.writeVarInt(RegistryNetworkIds.getNetworkId(Registries.MENU_TYPES, this.handler));
         buffer.writeInt(this.windowId);
         this.handler.writeContainer(this.container, buffer);
     }
 
     @Override
     public void read(PacketBuffer buffer){
-        String identifier = buffer.readString(32768);
-        if(!RegistryUtil.isValidIdentifier(identifier))
-            throw new RuntimeException("Received invalid identifier!");
+        int id = buffer.readVarInt();
         //noinspection unchecked
-        this.handler = (BaseContainerType<T>)Registries.MENU_TYPES.getValue(new ResourceLocation(identifier));
+        this.handler = (BaseContainerType<T>)RegistryNetworkIds.getValue(Registries.MENU_TYPES, id);
         if(this.handler == null)
-            throw new RuntimeException("Received unknown menu type identifier '" + identifier + "'!");
+            throw new RuntimeException("Received unknown menu type id '" + id + "'!");
         this.windowId = buffer.readInt();
         this.container = this.handler.readContainer(ClientUtils.getPlayer(), buffer);
     }
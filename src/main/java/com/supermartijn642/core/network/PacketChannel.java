@@ -1,34 +1,200 @@
 package com.supermartijn642.core.network;
 
+import com.supermartijn642.core.CommonUtils;
 import com.supermartijn642.core.CoreLib;
+import com.supermartijn642.core.CoreSide;
 import com.supermartijn642.core.registry.RegistryUtil;
+import com.supermartijn642.core.util.Pair;
 import io.netty.buffer.ByteBuf;
-import io.netty.util.collection.IntObjectHashMap;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.util.Attribute;
+import io.netty.util.AttributeKey;
 import net.minecraft.entity.Entity;
 import net.minecraft.entity.player.EntityPlayer;
 import net.minecraft.entity.player.EntityPlayerMP;
+import net.minecraft.network.NetHandlerPlayServer;
+import net.minecraft.network.NetworkManager;
 import net.minecraft.network.PacketBuffer;
+import net.minecraft.server.management.PlayerChunkMapEntry;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.DimensionType;
 import net.minecraft.world.World;
+import net.minecraft.world.WorldServer;
+import net.minecraftforge.common.MinecraftForge;
+import net.minecraftforge.event.world.WorldEvent;
 import net.minecraftforge.fml.common.Loader;
 import net.minecraftforge.fml.common.ModContainer;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+import net.minecraftforge.fml.common.gameevent.TickEvent;
+import net.minecraftforge.fml.common.network.FMLEmbeddedChannel;
+import net.minecraftforge.fml.common.network.FMLNetworkEvent;
+import net.minecraftforge.fml.common.network.FMLOutboundHandler;
 import net.minecraftforge.fml.common.network.NetworkRegistry;
+import net.minecraftforge.fml.common.network.internal.FMLProxyPacket;
 import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
 import net.minecraftforge.fml.common.network.simpleimpl.IMessageHandler;
 import net.minecraftforge.fml.common.network.simpleimpl.MessageContext;
 import net.minecraftforge.fml.common.network.simpleimpl.SimpleNetworkWrapper;
 import net.minecraftforge.fml.relauncher.Side;
 
-import java.util.HashMap;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Supplier;
+import java.util.zip.Deflater;
 
 /**
  * Created 5/30/2021 by SuperMartijn642
  */
 public class PacketChannel {
 
+    /**
+     * Marks a packet which holds multiple bundled packets
+     */
+    static final int FLAG_BUNDLE = 1;
+    /**
+     * Marks a packet whose data is compressed
+     */
+    private static final int FLAG_COMPRESSED = 1 << 1;
+    /**
+     * Marks a packet which holds a chunk of a larger streamed packet
+     */
+    static final int FLAG_STREAM_CHUNK = 1 << 2;
+    /**
+     * Marks a request packet, followed by the request's id
+     */
+    static final int FLAG_REQUEST = 1 << 3;
+    /**
+     * Marks a response packet, followed by the request's id
+     */
+    static final int FLAG_RESPONSE = 1 << 4;
+    /**
+     * Together with {@link #FLAG_REQUEST} marks a cancelled request, together with {@link #FLAG_RESPONSE} marks a rejected request
+     */
+    static final int FLAG_CANCELLED = 1 << 5;
+    private static final int KNOWN_FLAGS = FLAG_BUNDLE | FLAG_COMPRESSED | FLAG_STREAM_CHUNK | FLAG_REQUEST | FLAG_RESPONSE | FLAG_CANCELLED;
+
+    /**
+     * Discriminators used by the {@link SimpleNetworkWrapper} for {@link InternalPacket} and {@link ClientboundInternalPacket}
+     */
+    private static final int SERVERBOUND_DISCRIMINATOR = 0, CLIENTBOUND_DISCRIMINATOR = 1;
+
+    /**
+     * Maximum number of async packets per player which may be waiting for or being handled by a worker thread at once
+     */
+    private static final int MAX_ASYNC_PACKETS_PER_PLAYER = 256;
+
+    private static final Runnable NO_OP = () -> {};
+    private static final AttributeKey<PacketContext> CONTEXT_ATTRIBUTE = AttributeKey.valueOf("supermartijn642corelib:packet_context");
+
     private static final HashMap<String,PacketChannel> NAME_TO_CHANNEL = new HashMap<>();
+    /**
+     * All channels in order of creation, a channel's index in this list is its network id
+     */
+    private static final List<PacketChannel> CHANNELS = new ArrayList<>();
+    private static volatile PacketChannel[] idToChannel = new PacketChannel[0];
+    /**
+     * Players which have not yet acknowledged the server's channel id table, only used server-side
+     */
+    private static final Set<UUID> PLAYERS_WITHOUT_CHANNEL_IDS = ConcurrentHashMap.newKeySet();
+    /**
+     * Maps the server's channel ids to local channels, only used client-side
+     */
+    private static volatile PacketChannel[] serverIdToChannel;
+
+    static{
+        MinecraftForge.EVENT_BUS.register(new Object() {
+            @SubscribeEvent
+            public void onClientConnected(FMLNetworkEvent.ServerConnectionFromClientEvent e){
+                // Mark the player before it gets added to the player list, so broadcasts won't use ids the client doesn't know yet
+                PLAYERS_WITHOUT_CHANNEL_IDS.add(((NetHandlerPlayServer)e.getHandler()).player.getUniqueID());
+            }
+
+            @SubscribeEvent
+            public void onPlayerLoggedIn(net.minecraftforge.fml.common.gameevent.PlayerEvent.PlayerLoggedInEvent e){
+                CoreLib.CHANNEL.sendToPlayer(e.player, new ChannelIdTablePacket(getChannelNames()));
+                CoreLib.CHANNEL.sendToPlayer(e.player, new RegistryIdTablePacket(RegistryNetworkIds.getLocalIds()));
+                PlayerSpatialIndex.update((EntityPlayerMP)e.player);
+            }
+
+            @SubscribeEvent
+            public void onPlayerLoggedOut(net.minecraftforge.fml.common.gameevent.PlayerEvent.PlayerLoggedOutEvent e){
+                PLAYERS_WITHOUT_CHANNEL_IDS.remove(e.player.getUniqueID());
+                PlayerSpatialIndex.remove((EntityPlayerMP)e.player);
+                for(PacketChannel channel : idToChannel){
+                    Bundle bundle = channel.bundles.remove(e.player);
+                    if(bundle != null)
+                        bundle.release();
+                    channel.streams.onPlayerLoggedOut((EntityPlayerMP)e.player);
+                    channel.requests.onPlayerLoggedOut((EntityPlayerMP)e.player);
+                    PacketTaskQueue taskQueue = channel.taskQueue;
+                    if(taskQueue != null)
+                        taskQueue.onPlayerLoggedOut((EntityPlayerMP)e.player);
+                    channel.rateLimiter.onPlayerLoggedOut((EntityPlayerMP)e.player);
+                    channel.asyncPacketsInFlight.remove(e.player.getUniqueID());
+                }
+            }
+
+            @SubscribeEvent
+            public void onServerTick(TickEvent.ServerTickEvent e){
+                if(e.phase == TickEvent.Phase.START){
+                    for(PacketChannel channel : idToChannel){
+                        channel.rateLimiter.handleQueued();
+                        PacketTaskQueue taskQueue = channel.taskQueue;
+                        if(taskQueue != null)
+                            taskQueue.drain();
+                    }
+                }else if(e.phase == TickEvent.Phase.END){
+                    for(PacketChannel channel : idToChannel){
+                        channel.flushBundles();
+                        channel.streams.sendClientboundChunks();
+                    }
+                }
+            }
+
+            @SubscribeEvent
+            public void onPlayerRespawn(net.minecraftforge.fml.common.gameevent.PlayerEvent.PlayerRespawnEvent e){
+                // Respawning replaces the player's entity
+                PlayerSpatialIndex.update((EntityPlayerMP)e.player);
+            }
+
+            @SubscribeEvent
+            public void onWorldUnload(WorldEvent.Unload e){
+                if(!e.getWorld().isRemote)
+                    PlayerSpatialIndex.removeDimension(e.getWorld().provider.getDimension());
+            }
+
+            @SubscribeEvent
+            public void onPlayerTick(TickEvent.PlayerTickEvent e){
+                if(e.phase == TickEvent.Phase.END && e.side == Side.SERVER)
+                    PlayerSpatialIndex.update((EntityPlayerMP)e.player);
+            }
+
+            @SubscribeEvent
+            public void onClientTick(TickEvent.ClientTickEvent e){
+                if(e.phase == TickEvent.Phase.END){
+                    for(PacketChannel channel : idToChannel){
+                        channel.streams.sendServerboundChunks();
+                        channel.requests.checkTimeouts();
+                    }
+                }
+            }
+
+            @SubscribeEvent
+            public void onDisconnectedFromServer(FMLNetworkEvent.ClientDisconnectionFromServerEvent e){
+                setServerChannelIds(null);
+                RegistryNetworkIds.setServerIds(null);
+                for(PacketChannel channel : idToChannel){
+                    channel.streams.onDisconnectedFromServer();
+                    channel.requests.onDisconnectedFromServer();
+                }
+            }
+        });
+    }
 
     /**
      * Creates a channel with the given {@code channelName}.
@@ -68,23 +234,82 @@ public class PacketChannel {
 
     private final String modid, name;
     private final SimpleNetworkWrapper channel;
+    /**
+     * Server-side channel of the {@link #channel}, used to send prebuilt frames
+     */
+    private final FMLEmbeddedChannel serverChannel;
+    /**
+     * Id used on the wire instead of the channel's name
+     */
+    private final int networkId;
+    /**
+     * The server's id for this channel, only used client-side
+     */
+    private volatile int serverNetworkId = -1;
 
-    private int index = 0;
     private final HashMap<Class<? extends BasePacket>,Integer> packet_to_index = new HashMap<>();
-    private final IntObjectHashMap<Supplier<? extends BasePacket>> index_to_packet = new IntObjectHashMap<>();
     /**
-     * Whether a packet should be handled on the main thread or off thread
+     * Packet suppliers indexed by the packets' discriminators
+     */
+    private final List<Supplier<? extends BasePacket>> index_to_packet = new ArrayList<>();
+    /**
+     * Whether a packet should be handled on the main thread, off thread, or on a worker thread
+     */
+    private final HashMap<Class<? extends BasePacket>,HandlingThread> packet_to_handling = new HashMap<>();
+    /**
+     * Rate limits for packets received by the server indexed by the packets' discriminators, {@code null} for packets without a limit
+     */
+    private final List<PacketRateLimit> index_to_rate_limit = new ArrayList<>();
+    /**
+     * Pools for packets which implement {@link ResettablePacket} indexed by the packets' discriminators, {@code null} for other packets
+     */
+    private final List<PacketPool> index_to_pool = new ArrayList<>();
+    /**
+     * Whether packets send to players should be bundled until the end of the tick
+     */
+    private volatile boolean bundlePackets = false;
+    /**
+     * Encoded packets waiting to be bundled per player
      */
-    private final HashMap<Class<? extends BasePacket>,Boolean> packet_to_queued = new HashMap<>();
+    private final Map<EntityPlayerMP,Bundle> bundles = new ConcurrentHashMap<>();
+    private final LongAdder coalescedPackets = new LongAdder();
+    /**
+     * Minimum size in bytes for a packet's data to be compressed, or {@code -1} if compression is disabled
+     */
+    private volatile int compressionThreshold = -1;
+    private volatile int compressionLevel = 6;
+    private final LongAdder compressedPackets = new LongAdder();
+    private final LongAdder bytesBeforeCompression = new LongAdder();
+    private final LongAdder bytesAfterCompression = new LongAdder();
+    private final PacketStreams streams = new PacketStreams(this);
+    private final PacketRequests requests = new PacketRequests(this);
+    /**
+     * Queue for packets which should be handled on the main thread server-side, or {@code null} to use the server's task queue
+     */
+    private volatile PacketTaskQueue taskQueue;
+    private final PacketRateLimiter rateLimiter = new PacketRateLimiter(this);
+    /**
+     * Number of async packets per player which are waiting for or being handled by a worker thread, only used server-side
+     */
+    private final Map<UUID,AtomicInteger> asyncPacketsInFlight = new ConcurrentHashMap<>();
+    private final LongAdder rejectedAsyncPackets = new LongAdder();
+    private final PacketChannelMetrics metrics = new PacketChannelMetrics(this);
 
     private PacketChannel(String modid, String name){
         this.modid = modid;
         this.name = name;
         this.channel = NetworkRegistry.INSTANCE.newSimpleChannel(modid + ":" + name);
-        this.channel.registerMessage(new InternalPacket(this), InternalPacket.class, 0, Side.SERVER);
-        this.channel.registerMessage(new InternalPacket(this), InternalPacket.class, 1, Side.CLIENT);
+        this.channel.registerMessage(new InternalPacket(this), InternalPacket.class, SERVERBOUND_DISCRIMINATOR, Side.SERVER);
+        this.channel.registerMessage(new InternalPacket(this), ClientboundInternalPacket.class, CLIENTBOUND_DISCRIMINATOR, Side.CLIENT);
+        this.serverChannel = NetworkRegistry.INSTANCE.getChannel(modid + ":" + name, Side.SERVER);
 
-        NAME_TO_CHANNEL.put(modid + ":" + name, this);
+        synchronized(CHANNELS){
+            this.networkId = CHANNELS.size();
+            CHANNELS.add(this);
+            idToChannel = CHANNELS.toArray(new PacketChannel[0]);
+            NAME_TO_CHANNEL.put(modid + ":" + name, this);
+        }
+        this.metrics.registerMBean();
     }
 
     /**
@@ -94,13 +319,222 @@ public class PacketChannel {
      * @param shouldBeQueued whether the packet should be handled on the main thread
      */
     public <T extends BasePacket> void registerMessage(Class<T> packetClass, Supplier<T> packetSupplier, boolean shouldBeQueued){
+        this.registerMessage(packetClass, packetSupplier, shouldBeQueued ? HandlingThread.MAIN : HandlingThread.NETWORK, null);
+    }
+
+    /**
+     * Registers a packet for this channel which players may only send to the server at the given rate.
+     * Packets exceeding the limit are dropped or queued before being decoded.
+     * @param packetClass    class of the packet
+     * @param packetSupplier supplier for new packet instances
+     * @param shouldBeQueued whether the packet should be handled on the main thread
+     * @param rateLimit      rate limit per player for the packet
+     */
+    public <T extends BasePacket> void registerMessage(Class<T> packetClass, Supplier<T> packetSupplier, boolean shouldBeQueued, PacketRateLimit rateLimit){
+        if(rateLimit == null)
+            throw new IllegalArgumentException("Rate limit must not be null!");
+        this.registerMessage(packetClass, packetSupplier, shouldBeQueued ? HandlingThread.MAIN : HandlingThread.NETWORK, rateLimit);
+    }
+
+    /**
+     * Registers a packet for this channel which will be handled on one of CoreLib's worker threads.
+     * See {@link AsyncBasePacket#handleAsync(PacketContext)}.
+     * @param packetClass    class of the packet
+     * @param packetSupplier supplier for new packet instances
+     */
+    public <T extends AsyncBasePacket> void registerAsyncMessage(Class<T> packetClass, Supplier<T> packetSupplier){
+        this.registerMessage(packetClass, packetSupplier, HandlingThread.WORKER, null);
+    }
+
+    /**
+     * Registers a packet for this channel which will be handled on one of CoreLib's worker threads and which players may only send to the server at the given rate.
+     * See {@link AsyncBasePacket#handleAsync(PacketContext)}.
+     * @param packetClass    class of the packet
+     * @param packetSupplier supplier for new packet instances
+     * @param rateLimit      rate limit per player for the packet
+     */
+    public <T extends AsyncBasePacket> void registerAsyncMessage(Class<T> packetClass, Supplier<T> packetSupplier, PacketRateLimit rateLimit){
+        if(rateLimit == null)
+            throw new IllegalArgumentException("Rate limit must not be null!");
+        this.registerMessage(packetClass, packetSupplier, HandlingThread.WORKER, rateLimit);
+    }
+
+    private <T extends BasePacket> void registerMessage(Class<T> packetClass, Supplier<T> packetSupplier, HandlingThread handlingThread, PacketRateLimit rateLimit){
         if(this.packet_to_index.containsKey(packetClass))
             throw new IllegalArgumentException("Class '" + packetClass + "' has already been registered!");
+        // Async packets would otherwise silently be handled through their empty handle method
+        if(handlingThread != HandlingThread.WORKER && AsyncBasePacket.class.isAssignableFrom(packetClass))
+            throw new IllegalArgumentException("Async packet '" + packetClass + "' must be registered through registerAsyncMessage!");
 
-        int index = this.index++;
+        int index = this.index_to_packet.size();
         this.packet_to_index.put(packetClass, index);
-        this.index_to_packet.put(index, packetSupplier);
-        this.packet_to_queued.put(packetClass, shouldBeQueued);
+        this.index_to_packet.add(packetSupplier);
+        this.packet_to_handling.put(packetClass, handlingThread);
+        this.index_to_rate_limit.add(rateLimit);
+        this.index_to_pool.add(ResettablePacket.class.isAssignableFrom(packetClass) ? new PacketPool(packetSupplier) : null);
+        this.metrics.registerPacket(packetClass);
+    }
+
+    /**
+     * Makes packets sent to players be collected during the server tick, rather than being sent immediately.
+     * At the end of the tick, all packets for a player will be sent as a single bundle.
+     * This avoids the overhead of sending many small packets separately.
+     * Packets sent to the server are not affected.
+     */
+    public void enableBundling(){
+        this.bundlePackets = true;
+    }
+
+    /**
+     * Makes packets whose data is at least {@code threshold} bytes be compressed before being sent.
+     * Smaller packets are sent as is.
+     * @param threshold minimum size in bytes for a packet's data to be compressed
+     * @param level     compression level between 0 and 9, see {@link Deflater}
+     */
+    public void enableCompression(int threshold, int level){
+        if(threshold < 0)
+            throw new IllegalArgumentException("Compression threshold must not be negative!");
+        if(level < 0 || level > 9)
+            throw new IllegalArgumentException("Compression level must be between 0 and 9!");
+        this.compressionThreshold = threshold;
+        this.compressionLevel = level;
+    }
+
+    /**
+     * Makes packets whose data is at least {@code threshold} bytes be compressed before being sent.
+     * Smaller packets are sent as is.
+     * @param threshold minimum size in bytes for a packet's data to be compressed
+     */
+    public void enableCompression(int threshold){
+        this.enableCompression(threshold, 6);
+    }
+
+    /**
+     * Makes queued packets received by the server be handled from a bounded queue per player, rather than the server's unbounded task queue.
+     * At the start of each tick, queued packets are handled until the time budget is used up. Players take turns, such that a
+     * single player flooding packets can't delay other players' packets or lag the server.
+     * @param capacityPerPlayer maximum number of packets queued per player
+     * @param budgetMicros      time in microseconds which may be spent handling queued packets per tick
+     * @param overflowPolicy    what to do with packets which don't fit in a player's queue
+     */
+    public void enableBoundedQueue(int capacityPerPlayer, long budgetMicros, QueueOverflowPolicy overflowPolicy){
+        if(capacityPerPlayer <= 0)
+            throw new IllegalArgumentException("Queue capacity must be positive!");
+        if(budgetMicros <= 0)
+            throw new IllegalArgumentException("Time budget must be positive!");
+        if(overflowPolicy == null)
+            throw new IllegalArgumentException("Overflow policy must not be null!");
+        this.taskQueue = new PacketTaskQueue(this, capacityPerPlayer, budgetMicros * 1000, overflowPolicy);
+    }
+
+    /**
+     * @return the number of packets which didn't fit in the bounded queue
+     * @see #enableBoundedQueue(int, long, QueueOverflowPolicy)
+     */
+    public long getOverflowedPacketCount(){
+        PacketTaskQueue taskQueue = this.taskQueue;
+        return taskQueue == null ? 0 : taskQueue.getOverflowedTaskCount();
+    }
+
+    /**
+     * @return the number of {@link AsyncBasePacket}s which have been dropped because too many async packets were already waiting for a worker thread
+     */
+    public long getRejectedAsyncPacketCount(){
+        return this.rejectedAsyncPackets.sum();
+    }
+
+    /**
+     * @return packet counts, sizes and handling times for this channel
+     */
+    public PacketChannelMetrics getMetrics(){
+        return this.metrics;
+    }
+
+    /**
+     * @return the number of bundled packets which have been replaced by a newer packet with the same coalescing key
+     * @see BasePacket#getCoalescingKey()
+     */
+    public long getCoalescedPacketCount(){
+        return this.coalescedPackets.sum();
+    }
+
+    /**
+     * @return the number of packets received by the server which have been dropped for exceeding their rate limit
+     * @see #registerMessage(Class, Supplier, boolean, PacketRateLimit)
+     */
+    public long getRateLimitedPacketCount(){
+        return this.rateLimiter.getDroppedPacketCount();
+    }
+
+    /**
+     * @return the number of packets of the given class received by the server which have been dropped for exceeding their rate limit
+     * @see #registerMessage(Class, Supplier, boolean, PacketRateLimit)
+     */
+    public long getRateLimitedPacketCount(Class<? extends BasePacket> packetClass){
+        Integer index = this.packet_to_index.get(packetClass);
+        if(index == null)
+            throw new IllegalArgumentException("Class '" + packetClass + "' has not been registered!");
+        return this.rateLimiter.getDroppedPacketCount(index);
+    }
+
+    /**
+     * Sets the maximum number of bytes sent per tick for streamed packets, per connection.
+     * Defaults to 64 KiB.
+     * @see #streamToPlayer(EntityPlayer, BasePacket)
+     * @see #streamToServer(BasePacket)
+     */
+    public void setStreamBandwidth(int bytesPerTick){
+        if(bytesPerTick <= 0)
+            throw new IllegalArgumentException("Stream bandwidth must be positive!");
+        this.streams.setBytesPerTick(bytesPerTick);
+    }
+
+    /**
+     * Sets the maximum size in bytes of a single streamed packet. Larger incoming streams will be discarded.
+     * This should be the same on the client and server. Defaults to 8 MiB.
+     * @see #streamToPlayer(EntityPlayer, BasePacket)
+     * @see #streamToServer(BasePacket)
+     */
+    public void setMaxStreamSize(int maxStreamSize){
+        if(maxStreamSize <= 0)
+            throw new IllegalArgumentException("Maximum stream size must be positive!");
+        this.streams.setMaxStreamSize(maxStreamSize);
+    }
+
+    /**
+     * Sets the default time after which requests without a response will fail. Defaults to 10 seconds.
+     * @see #sendRequestToServer(RequestPacket)
+     */
+    public void setRequestTimeout(long timeoutMillis){
+        if(timeoutMillis <= 0)
+            throw new IllegalArgumentException("Request timeout must be positive!");
+        this.requests.setTimeout(timeoutMillis);
+    }
+
+    /**
+     * Sets the maximum number of requests which may wait for a response at the same time, per player. Defaults to 16.
+     * Requests exceeding the limit will fail immediately on the client and be rejected by the server.
+     * This should be the same on the client and server.
+     * @see #sendRequestToServer(RequestPacket)
+     */
+    public void setMaxRequestsInFlight(int maxRequestsInFlight){
+        if(maxRequestsInFlight <= 0)
+            throw new IllegalArgumentException("Maximum requests in flight must be positive!");
+        this.requests.setMaxRequestsInFlight(maxRequestsInFlight);
+    }
+
+    /**
+     * @return the number of sent packets which have been compressed
+     */
+    public long getCompressedPacketCount(){
+        return this.compressedPackets.sum();
+    }
+
+    /**
+     * @return the total number of bytes saved by compressing sent packets
+     */
+    public long getBytesSavedByCompression(){
+        return this.bytesBeforeCompression.sum() - this.bytesAfterCompression.sum();
     }
 
     /**
@@ -109,7 +543,7 @@ public class PacketChannel {
      */
     public void sendToServer(BasePacket packet){
         this.checkRegistration(packet);
-        this.channel.sendToServer(new InternalPacket(this).setPacket(packet));
+        this.channel.sendToServer(new InternalPacket(this).setPacket(packet).setChannelId(this.serverNetworkId));
     }
 
     /**
@@ -121,7 +555,71 @@ public class PacketChannel {
         if(!(player instanceof EntityPlayerMP))
             throw new IllegalStateException("This must only be called server-side!");
         this.checkRegistration(packet);
-        this.channel.sendTo(new InternalPacket(this).setPacket(packet), (EntityPlayerMP)player);
+        if(this.bundlePackets){
+            ByteBuf encodedPacket = this.encode(packet);
+            this.addToBundle((EntityPlayerMP)player, getCoalescingKey(packet), encodedPacket);
+        }else
+            this.channel.sendTo(this.createClientboundPacket(packet, !PLAYERS_WITHOUT_CHANNEL_IDS.contains(player.getUniqueID())), (EntityPlayerMP)player);
+    }
+
+    /**
+     * Sends the given {@code request} to the server. Must only be used client-side.
+     * Both the request and its response must be registered on this channel.
+     * The returned future is completed on the main thread if the response was registered to be queued, and off thread otherwise.
+     * The future fails if the request times out, is rejected by the server, the response is not of the type declared by the request, or the connection is closed.
+     * Cancelling the future lets the server know it no longer needs to respond.
+     * @param request       request to be send
+     * @param timeoutMillis time in milliseconds after which the request fails
+     * @return a future for the server's response
+     */
+    public <R extends BasePacket> CompletableFuture<R> sendRequestToServer(RequestPacket<R> request, long timeoutMillis){
+        this.checkRegistration(request);
+        return this.requests.sendToServer(request, timeoutMillis);
+    }
+
+    /**
+     * Sends the given {@code request} to the server. Must only be used client-side.
+     * Both the request and its response must be registered on this channel.
+     * The returned future is completed on the main thread if the response was registered to be queued, and off thread otherwise.
+     * The future fails if the request times out, is rejected by the server, the response is not of the type declared by the request, or the connection is closed.
+     * Cancelling the future lets the server know it no longer needs to respond.
+     * @param request request to be send
+     * @return a future for the server's response
+     * @see #setRequestTimeout(long)
+     */
+    public <R extends BasePacket> CompletableFuture<R> sendRequestToServer(RequestPacket<R> request){
+        return this.sendRequestToServer(request, this.requests.getTimeout());
+    }
+
+    /**
+     * Sends the given {@code packet} to the server in chunks spread over multiple ticks. Must only be used client-side.
+     * This should be used for packets which may exceed the maximum packet size, or which are large enough to stall other traffic.
+     * The packet will only be read once all chunks have been received.
+     * @param packet packet to be send
+     * @see #setStreamBandwidth(int)
+     */
+    public void streamToServer(BasePacket packet){
+        this.checkRegistration(packet);
+        ByteBuf encodedPacket = this.encode(packet);
+        this.countSent(encodedPacket, 1);
+        this.streams.queueToServer(encodedPacket);
+    }
+
+    /**
+     * Sends the given {@code packet} to the given player in chunks spread over multiple ticks. Must only be used server-side.
+     * This should be used for packets which may exceed the maximum packet size, or which are large enough to stall other traffic.
+     * The packet will only be read once all chunks have been received.
+     * @param player player to send the packet to
+     * @param packet packet to be send
+     * @see #setStreamBandwidth(int)
+     */
+    public void streamToPlayer(EntityPlayer player, BasePacket packet){
+        if(!(player instanceof EntityPlayerMP))
+            throw new IllegalStateException("This must only be called server-side!");
+        this.checkRegistration(packet);
+        ByteBuf encodedPacket = this.encode(packet);
+        this.countSent(encodedPacket, 1);
+        this.streams.queueToPlayer((EntityPlayerMP)player, encodedPacket);
     }
 
     /**
@@ -130,7 +628,17 @@ public class PacketChannel {
      */
     public void sendToAllPlayers(BasePacket packet){
         this.checkRegistration(packet);
-        this.channel.sendToAll(new InternalPacket(this).setPacket(packet));
+        ByteBuf encodedPacket = this.encode(packet);
+        try{
+            if(this.bundlePackets){
+                Object coalescingKey = getCoalescingKey(packet);
+                for(EntityPlayerMP player : CommonUtils.getServer().getPlayerList().getPlayers())
+                    this.addToBundle(player, coalescingKey, encodedPacket.retainedDuplicate());
+            }else
+                CommonUtils.getServer().getPlayerList().getPlayers().forEach(new SharedFrame(encodedPacket)::sendTo);
+        }finally{
+            encodedPacket.release();
+        }
     }
 
     /**
@@ -140,7 +648,21 @@ public class PacketChannel {
      */
     public void sendToDimension(int dimension, BasePacket packet){
         this.checkRegistration(packet);
-        this.channel.sendToDimension(new InternalPacket(this).setPacket(packet), dimension);
+        ByteBuf encodedPacket = this.encode(packet);
+        try{
+            Object coalescingKey = this.bundlePackets ? getCoalescingKey(packet) : null;
+            SharedFrame frame = this.bundlePackets ? null : new SharedFrame(encodedPacket);
+            for(EntityPlayerMP player : CommonUtils.getServer().getPlayerList().getPlayers()){
+                if(player.dimension != dimension)
+                    continue;
+                if(this.bundlePackets)
+                    this.addToBundle(player, coalescingKey, encodedPacket.retainedDuplicate());
+                else
+                    frame.sendTo(player);
+            }
+        }finally{
+            encodedPacket.release();
+        }
     }
 
     /**
@@ -174,7 +696,52 @@ public class PacketChannel {
         if(entity.world.isRemote)
             throw new IllegalStateException("This must only be called server-side!");
         this.checkRegistration(packet);
-        this.channel.sendToAllTracking(new InternalPacket(this).setPacket(packet), entity);
+        ByteBuf encodedPacket = this.encode(packet);
+        try{
+            Object coalescingKey = this.bundlePackets ? getCoalescingKey(packet) : null;
+            SharedFrame frame = this.bundlePackets ? null : new SharedFrame(encodedPacket);
+            for(EntityPlayer player : ((WorldServer)entity.world).getEntityTracker().getTrackingPlayers(entity)){
+                if(this.bundlePackets)
+                    this.addToBundle((EntityPlayerMP)player, coalescingKey, encodedPacket.retainedDuplicate());
+                else
+                    frame.sendTo((EntityPlayerMP)player);
+            }
+        }finally{
+            encodedPacket.release();
+        }
+    }
+
+    /**
+     * Sends the given {@code packet} to all players which have the chunk containing {@code pos} loaded. Must only be used server-side.
+     * @param packet packet to be send
+     */
+    public void sendToAllTrackingChunk(World world, BlockPos pos, BasePacket packet){
+        if(world.isRemote)
+            throw new IllegalStateException("This must only be called server-side!");
+        this.checkRegistration(packet);
+        PlayerChunkMapEntry chunk = ((WorldServer)world).getPlayerChunkMap().getEntry(pos.getX() >> 4, pos.getZ() >> 4);
+        if(chunk == null || !chunk.isSentToPlayers())
+            return;
+
+        ByteBuf encodedPacket = null;
+        try{
+            Object coalescingKey = this.bundlePackets ? getCoalescingKey(packet) : null;
+            SharedFrame frame = null;
+            for(EntityPlayerMP player : chunk.players){
+                // Only encode the packet once a player is found
+                if(encodedPacket == null){
+                    encodedPacket = this.encode(packet);
+                    frame = new SharedFrame(encodedPacket);
+                }
+                if(this.bundlePackets)
+                    this.addToBundle(player, coalescingKey, encodedPacket.retainedDuplicate());
+                else
+                    frame.sendTo(player);
+            }
+        }finally{
+            if(encodedPacket != null)
+                encodedPacket.release();
+        }
     }
 
     /**
@@ -183,7 +750,17 @@ public class PacketChannel {
      */
     public void sendToAllNear(DimensionType world, double x, double y, double z, double radius, BasePacket packet){
         this.checkRegistration(packet);
-        this.channel.sendToAllAround(new InternalPacket(this).setPacket(packet), new NetworkRegistry.TargetPoint(world.getId(), x, y, z, radius));
+        ByteBuf encodedPacket = this.encode(packet);
+        try{
+            // Players are looked up in the spatial index rather than checking every player like NetworkRegistry.TargetPoint
+            if(this.bundlePackets){
+                Object coalescingKey = getCoalescingKey(packet);
+                PlayerSpatialIndex.forEachPlayerNear(world.getId(), x, y, z, radius, player -> this.addToBundle(player, coalescingKey, encodedPacket.retainedDuplicate()));
+            }else
+                PlayerSpatialIndex.forEachPlayerNear(world.getId(), x, y, z, radius, new SharedFrame(encodedPacket)::sendTo);
+        }finally{
+            encodedPacket.release();
+        }
     }
 
     /**
@@ -214,46 +791,614 @@ public class PacketChannel {
         this.sendToAllNear(world.provider.getDimensionType(), pos.getX() + 0.5, pos.getY() + 0.5, pos.getZ() + 0.5, radius, packet);
     }
 
+    /**
+     * Creates a batch to send many packets to nearby players at once. All players near a packet's position are resolved
+     * when the batch is sent, and each player receives all their packets from the batch together. Must only be used server-side.
+     * @see #sendToAllNear(World, double, double, double, double, BasePacket)
+     */
+    public NearbyPacketBatch createNearbyBatch(){
+        return new NearbyPacketBatch(this);
+    }
+
     private void checkRegistration(BasePacket packet){
         if(!this.packet_to_index.containsKey(packet.getClass()))
             throw new IllegalArgumentException("Tried to send unregistered packet '" + packet.getClass() + "' on channel '" + this.modid + ":" + this.name + "'!");
     }
 
+    private ClientboundInternalPacket createClientboundPacket(BasePacket packet, boolean useChannelId){
+        ClientboundInternalPacket internalPacket = new ClientboundInternalPacket(this);
+        internalPacket.setPacket(packet).setChannelId(useChannelId ? this.networkId : -1);
+        return internalPacket;
+    }
+
+    /**
+     * Sends the given encoded packet to the given player. The encoded packet is not released and not counted in the channel's metrics.
+     */
+    void sendEncodedToPlayer(EntityPlayerMP player, ByteBuf encodedPacket){
+        ClientboundInternalPacket internalPacket = new ClientboundInternalPacket(this);
+        internalPacket.setEncodedPackets(Collections.singletonList(encodedPacket)).setChannelId(PLAYERS_WITHOUT_CHANNEL_IDS.contains(player.getUniqueID()) ? -1 : this.networkId);
+        this.channel.sendTo(internalPacket, player);
+    }
+
+    /**
+     * Creates a frame for the given encoded packet which can be sent to multiple players. The encoded packet is not released.
+     */
+    SharedFrame createSharedFrame(ByteBuf encodedPacket){
+        return new SharedFrame(encodedPacket);
+    }
+
+    /**
+     * Sends the given encoded packets to the given player as a single bundle. The encoded packets are not released.
+     */
+    void sendEncodedToPlayer(EntityPlayerMP player, List<ByteBuf> encodedPackets){
+        ClientboundInternalPacket internalPacket = new ClientboundInternalPacket(this);
+        internalPacket.setEncodedPackets(encodedPackets).setChannelId(PLAYERS_WITHOUT_CHANNEL_IDS.contains(player.getUniqueID()) ? -1 : this.networkId);
+        this.channel.sendTo(internalPacket, player);
+        for(ByteBuf encodedPacket : encodedPackets)
+            this.countSent(encodedPacket, 1);
+    }
+
+    /**
+     * Sends the given encoded packet to the server. The encoded packet is not released and not counted in the channel's metrics.
+     */
+    void sendEncodedToServer(ByteBuf encodedPacket){
+        this.channel.sendToServer(new InternalPacket(this).setEncodedPackets(Collections.singletonList(encodedPacket)).setChannelId(this.serverNetworkId));
+    }
+
+    void sendRequest(RequestPacket<?> request, int requestId){
+        ByteBuf encodedPacket = Unpooled.buffer();
+        try{
+            this.write(request, new PacketBuffer(encodedPacket), FLAG_REQUEST, requestId);
+            this.sendEncodedToServer(encodedPacket);
+            this.countSent(encodedPacket, 1);
+        }finally{
+            encodedPacket.release();
+        }
+    }
+
+    void sendRequestCancel(int requestId){
+        ByteBuf encodedPacket = Unpooled.buffer();
+        try{
+            PacketBuffer buffer = new PacketBuffer(encodedPacket);
+            PacketFrames.writeHeader(buffer, 0, FLAG_REQUEST | FLAG_CANCELLED, requestId);
+            this.sendEncodedToServer(encodedPacket);
+        }finally{
+            encodedPacket.release();
+        }
+    }
+
+    /**
+     * Sends the given response to the given player, or rejects the request if {@code response} is {@code null}.
+     */
+    void sendResponse(EntityPlayerMP player, int requestId, BasePacket response){
+        if(response != null && !this.packet_to_index.containsKey(response.getClass())){
+            CoreLib.LOGGER.error("Tried to send unregistered response '" + response.getClass() + "' on channel '" + this.modid + ":" + this.name + "'!");
+            response = null;
+        }
+
+        ByteBuf encodedPacket = Unpooled.buffer();
+        try{
+            PacketBuffer buffer = new PacketBuffer(encodedPacket);
+            if(response == null){
+                PacketFrames.writeHeader(buffer, 0, FLAG_RESPONSE | FLAG_CANCELLED, requestId);
+            }else
+                this.write(response, buffer, FLAG_RESPONSE, requestId);
+            this.sendEncodedToPlayer(player, encodedPacket);
+            if(response != null)
+                this.countSent(encodedPacket, 1);
+        }finally{
+            encodedPacket.release();
+        }
+    }
+
+    /**
+     * Encodes the given packet once, such that it can be shared between multiple players.
+     * @return a buffer holding the encoded packet, which must be released by the caller
+     */
+    private ByteBuf encode(BasePacket packet){
+        ByteBuf buffer = Unpooled.buffer();
+        this.write(packet, new PacketBuffer(buffer));
+        return buffer;
+    }
+
+    ByteBuf encodeChecked(BasePacket packet){
+        this.checkRegistration(packet);
+        return this.encode(packet);
+    }
+
+    boolean isBundling(){
+        return this.bundlePackets;
+    }
+
+    /**
+     * Combines the packet's class with its coalescing key, such that different packet classes never replace each other.
+     * @return the key or {@code null} if the packet should not be coalesced
+     */
+    static Object getCoalescingKey(BasePacket packet){
+        Object key = packet.getCoalescingKey();
+        return key == null ? null : Pair.of(packet.getClass(), key);
+    }
+
+    /**
+     * Queues the given encoded packet to be send to the given player at the end of the tick. Takes ownership of the given buffer.
+     * @param coalescingKey key of the packet, a queued packet with the same key will be replaced
+     */
+    void addToBundle(EntityPlayerMP player, Object coalescingKey, ByteBuf encodedPacket){
+        this.bundles.compute(player, (p, bundle) -> {
+            if(bundle == null)
+                bundle = new Bundle();
+            if(bundle.add(coalescingKey, encodedPacket))
+                this.coalescedPackets.increment();
+            return bundle;
+        });
+    }
+
+    private void flushBundles(){
+        if(this.bundles.isEmpty())
+            return;
+
+        for(EntityPlayerMP player : this.bundles.keySet()){
+            Bundle bundle = this.bundles.remove(player);
+            if(bundle == null)
+                continue;
+            List<ByteBuf> packets = bundle.getPackets();
+            if(packets.isEmpty())
+                continue;
+
+            try{
+                // Packets are encoded immediately when sent, so the buffers can be released afterwards
+                this.sendEncodedToPlayer(player, packets);
+            }finally{
+                packets.forEach(ByteBuf::release);
+            }
+        }
+    }
+
     private void write(BasePacket packet, PacketBuffer buffer){
+        this.write(packet, buffer, 0, 0);
+    }
+
+    /**
+     * Writes the given packet with the given flags. The {@code requestId} is only written for requests and responses.
+     */
+    private void write(BasePacket packet, PacketBuffer buffer, int flags, int requestId){
         // assume the packet has already been checked for registration here
         int index = this.packet_to_index.get(packet.getClass());
-        buffer.writeInt(index);
+        this.writeFrame(packet, buffer, index, flags, requestId);
+    }
+
+    /**
+     * Counts the given encoded packet as sent once to each recipient. Packets are counted when sent rather than when encoded,
+     * since a single encoded packet may be sent to any number of players.
+     */
+    private void countSent(ByteBuf encodedPacket, int recipients){
+        int index = PacketFrames.getIndex(new PacketBuffer(encodedPacket.duplicate()).readVarInt());
+        PacketMetrics metrics = this.metrics.get(index);
+        metrics.packetsSent.add(recipients);
+        metrics.bytesSent.add((long)encodedPacket.readableBytes() * recipients);
+    }
+
+    private void writeFrame(BasePacket packet, PacketBuffer buffer, int index, int flags, int requestId){
+        int headerIndex = buffer.writerIndex();
+        PacketFrames.writeHeader(buffer, index, flags, requestId);
+        int dataIndex = buffer.writerIndex();
         packet.write(buffer);
+
+        // Compress the data in place if it is large enough
+        int threshold = this.compressionThreshold;
+        int length = buffer.writerIndex() - dataIndex;
+        if(threshold < 0 || length < threshold)
+            return;
+        ByteBuf compressed = PacketCompression.compress(buffer, dataIndex, length, this.compressionLevel);
+        try{
+            // Only use the compressed data if it's actually smaller, taking the flags byte and size into account
+            if(compressed.readableBytes() + 4 >= length)
+                return;
+            buffer.writerIndex(headerIndex);
+            PacketFrames.writeHeader(buffer, index, flags | FLAG_COMPRESSED, requestId);
+            buffer.writeVarInt(length);
+            buffer.writeBytes(compressed);
+            this.compressedPackets.increment();
+            this.bytesBeforeCompression.add(length);
+            this.bytesAfterCompression.add(compressed.readableBytes());
+        }finally{
+            compressed.release();
+        }
     }
 
-    private BasePacket read(PacketBuffer buffer){
-        int index = buffer.readInt();
-        if(!this.index_to_packet.containsKey(index))
+    /**
+     * Reads all packets from the given {@code buffer} into the given {@code sink}.
+     */
+    private void read(PacketBuffer buffer, ReceivedPacket.Sink sink, boolean serverbound){
+        this.read(buffer, sink, serverbound, false);
+    }
+
+    private void read(PacketBuffer buffer, ReceivedPacket.Sink sink, boolean serverbound, boolean nested){
+        int header = buffer.readVarInt();
+        int flags = PacketFrames.readFlags(buffer, header);
+        int index = PacketFrames.getIndex(header);
+        if((flags & ~KNOWN_FLAGS) != 0)
+            throw new RuntimeException("Received a packet with unknown flags '" + flags + "' on channel '" + this.modid + ":" + this.name + "'!");
+
+        if((flags & (FLAG_BUNDLE | FLAG_STREAM_CHUNK)) != 0 && nested)
+            throw new RuntimeException("Received a nested packet bundle or stream on channel '" + this.modid + ":" + this.name + "'!");
+
+        if((flags & FLAG_BUNDLE) != 0){
+            PacketFrames.readBundle(buffer, packet -> this.read(packet, sink, serverbound, true));
+        }else if((flags & FLAG_STREAM_CHUNK) != 0)
+            sink.accept(PacketStreams.readChunk(buffer));
+        else{
+            boolean isRequest = (flags & FLAG_REQUEST) != 0, isResponse = (flags & FLAG_RESPONSE) != 0;
+            if(isRequest && isResponse)
+                throw new RuntimeException("Received a packet marked as both request and response on channel '" + this.modid + ":" + this.name + "'!");
+            int requestId = PacketFrames.readRequestId(buffer, flags);
+            if((flags & FLAG_CANCELLED) != 0){
+                if(!isRequest && !isResponse)
+                    throw new RuntimeException("Received a cancelled packet which is neither a request nor a response on channel '" + this.modid + ":" + this.name + "'!");
+                sink.accept(new PacketRequests.IncomingCancel(requestId, isRequest));
+                return;
+            }
+
+            // Rate limited packets are only decoded once the sender is known to be within the limit
+            PacketRateLimit rateLimit = serverbound && index < this.index_to_rate_limit.size() ? this.index_to_rate_limit.get(index) : null;
+            if(rateLimit != null)
+                sink.accept(PacketRateLimiter.defer(buffer, index, flags, requestId, rateLimit));
+            else
+                this.decode(buffer, index, flags, requestId, sink);
+        }
+    }
+
+    private void decode(PacketBuffer buffer, int index, int flags, int requestId, ReceivedPacket.Sink sink){
+        if(index >= this.index_to_packet.size())
             throw new RuntimeException("Received an unregistered packet with index '" + index + "' on channel '" + this.modid + ":" + this.name + "'!");
 
+        int startIndex = buffer.readerIndex();
+        long start = System.nanoTime();
+        PacketBuffer data = buffer;
+        if((flags & FLAG_COMPRESSED) != 0){
+            int length = buffer.readVarInt();
+            data = new PacketBuffer(PacketCompression.decompress(buffer, length));
+        }
+
+        // Requests and responses are passed on to the user, so they can't be reused
+        ReceivedPacket message = null;
+        BasePacket packet = null;
+        if((flags & FLAG_REQUEST) != 0){
+            BasePacket request = this.read(data, index);
+            if(!(request instanceof RequestPacket))
+                throw new RuntimeException("Received request '" + request.getClass() + "' which is not a request packet on channel '" + this.modid + ":" + this.name + "'!");
+            message = new PacketRequests.IncomingRequest(requestId, (RequestPacket<?>)request);
+        }else if((flags & FLAG_RESPONSE) != 0)
+            message = new PacketRequests.IncomingResponse(requestId, this.read(data, index));
+        else{
+            PacketPool pool = this.index_to_pool.get(index);
+            if(pool == null)
+                packet = this.read(data, index);
+            else
+                message = this.readPooled(data, pool);
+        }
+
+        PacketMetrics metrics = this.metrics.get(index);
+        metrics.decodeNanos.add(System.nanoTime() - start);
+        metrics.packetsReceived.increment();
+        metrics.bytesReceived.add(buffer.readerIndex() - startIndex);
+        if(message != null)
+            sink.accept(message);
+        else
+            sink.accept(packet);
+    }
+
+    /**
+     * Reads a packet into an instance taken from the given pool.
+     */
+    private PacketPool.PooledPacket readPooled(PacketBuffer buffer, PacketPool pool){
+        PacketPool.PooledPacket pooledPacket = pool.get();
+        try{
+            pooledPacket.packet.read(buffer);
+        }catch(RuntimeException e){
+            pooledPacket.recycle();
+            throw e;
+        }
+        return pooledPacket;
+    }
+
+    private BasePacket read(PacketBuffer buffer, int index){
         BasePacket packet = this.index_to_packet.get(index).get();
         packet.read(buffer);
         return packet;
     }
 
-    private void handle(BasePacket packet, MessageContext messageContext){
-        PacketContext context = new PacketContext(messageContext);
-        if(packet.verify(context)){
-            if(this.packet_to_queued.get(packet.getClass()))
-                context.queueTask(() -> packet.handle(context));
-            else
-                packet.handle(context);
+    private void handle(ReceivedPacket packet, MessageContext messageContext){
+        if(packet instanceof PacketRateLimiter.DeferredPacket){
+            if(messageContext.side == Side.SERVER)
+                this.rateLimiter.receive((PacketRateLimiter.DeferredPacket)packet, messageContext);
+            return;
+        }
+        if(packet instanceof PacketStreams.StreamChunk){
+            this.streams.receiveChunk((PacketStreams.StreamChunk)packet, messageContext);
+            return;
+        }
+        if(packet instanceof PacketRequests.IncomingRequest){
+            if(messageContext.side == Side.SERVER){
+                PacketRequests.IncomingRequest request = (PacketRequests.IncomingRequest)packet;
+                this.requests.receiveRequest(request, messageContext, this.packet_to_handling.get(request.request.getClass()) == HandlingThread.MAIN, this.metrics.get(request.request.getClass()));
+            }
+            return;
+        }
+        if(packet instanceof PacketRequests.IncomingResponse){
+            if(messageContext.side == Side.CLIENT){
+                PacketRequests.IncomingResponse response = (PacketRequests.IncomingResponse)packet;
+                this.requests.receiveResponse(response, messageContext, this.packet_to_handling.get(response.response.getClass()) == HandlingThread.MAIN);
+            }
+            return;
+        }
+        if(packet instanceof PacketRequests.IncomingCancel){
+            PacketRequests.IncomingCancel cancel = (PacketRequests.IncomingCancel)packet;
+            if(cancel.isRequest == (messageContext.side == Side.SERVER))
+                this.requests.receiveCancel(cancel, messageContext);
+            return;
+        }
+
+        if(packet instanceof PacketPool.PooledPacket){
+            PacketPool.PooledPacket pooledPacket = (PacketPool.PooledPacket)packet;
+            this.handle(pooledPacket.packet, messageContext, pooledPacket::recycle);
+            return;
+        }
+        this.handle(packet.getPacket(), messageContext, NO_OP);
+    }
+
+    /**
+     * Verifies and handles the given packet on the appropriate thread.
+     * @param onHandled called once the packet is no longer used
+     */
+    private void handle(BasePacket packet, MessageContext messageContext, Runnable onHandled){
+        PacketContext context = getContext(messageContext);
+        PacketMetrics metrics = this.metrics.get(packet.getClass());
+        long verifyStart = System.nanoTime();
+        boolean valid;
+        try{
+            valid = packet.verify(context);
+        }catch(RuntimeException e){
+            onHandled.run();
+            throw e;
+        }
+        metrics.verifyTime.record(System.nanoTime() - verifyStart);
+        if(!valid){
+            onHandled.run();
+            return;
+        }
+
+        switch(this.packet_to_handling.get(packet.getClass())){
+            case NETWORK:
+                metrics.timeHandling(andThen(() -> packet.handle(context), onHandled));
+                break;
+            case MAIN:
+                this.queueTask(context, metrics.timeQueued(andThen(() -> packet.handle(context), onHandled)), onHandled);
+                break;
+            case WORKER:
+                // Limit the number of packets per player, such that a single player can't fill up the worker queue
+                AtomicInteger inFlight = context.getHandlingSide() == CoreSide.SERVER ?
+                    this.asyncPacketsInFlight.computeIfAbsent(context.getSendingPlayer().getUniqueID(), uuid -> new AtomicInteger()) : null;
+                if(inFlight != null && inFlight.incrementAndGet() > MAX_ASYNC_PACKETS_PER_PLAYER){
+                    inFlight.decrementAndGet();
+                    this.rejectedAsyncPackets.increment();
+                    onHandled.run();
+                    break;
+                }
+                try{
+                    CommonUtils.getWorkerExecutor().execute(metrics.timeQueued(() -> {
+                        Runnable continuation = null;
+                        try{
+                            continuation = ((AsyncBasePacket)packet).handleAsync(context);
+                        }catch(Exception e){
+                            CoreLib.LOGGER.error("Encountered an exception whilst handling packet '" + packet.getClass() + "' on channel '" + this.modid + ":" + this.name + "'!", e);
+                        }finally{
+                            if(inFlight != null)
+                                inFlight.decrementAndGet();
+                        }
+                        if(continuation != null)
+                            this.queueTask(context, andThen(continuation, onHandled), onHandled);
+                        else
+                            onHandled.run();
+                    }));
+                }catch(RejectedExecutionException e){
+                    // The worker queue is full, drop the packet
+                    if(inFlight != null)
+                        inFlight.decrementAndGet();
+                    this.rejectedAsyncPackets.increment();
+                    onHandled.run();
+                }
+                break;
+        }
+    }
+
+    /**
+     * Runs {@code after} once {@code task} has finished, even if it throws an exception.
+     */
+    private static Runnable andThen(Runnable task, Runnable after){
+        if(after == NO_OP)
+            return task;
+        return () -> {
+            try{
+                task.run();
+            }finally{
+                after.run();
+            }
+        };
+    }
+
+    /**
+     * Gets a packet context for the given message context. The context only depends on the connection, hence a single
+     * instance is shared between all packets received over the same connection.
+     */
+    static PacketContext getContext(MessageContext messageContext){
+        NetworkManager networkManager = messageContext.side == Side.SERVER ? messageContext.getServerHandler().netManager : messageContext.getClientHandler().getNetworkManager();
+        Attribute<PacketContext> attribute = networkManager.channel().attr(CONTEXT_ATTRIBUTE);
+        PacketContext context = attribute.get();
+        if(context == null){
+            context = new PacketContext(messageContext);
+            PacketContext existing = attribute.setIfAbsent(context);
+            if(existing != null)
+                context = existing;
+        }
+        return context;
+    }
+
+    /**
+     * Queues the given task on the main thread, using the bounded queue if enabled.
+     * @param onDiscarded called instead of the task if the bounded queue drops it
+     */
+    void queueTask(PacketContext context, Runnable task, Runnable onDiscarded){
+        PacketTaskQueue taskQueue = this.taskQueue;
+        if(taskQueue != null && context.getHandlingSide() == CoreSide.SERVER)
+            taskQueue.add((EntityPlayerMP)context.getSendingPlayer(), task, onDiscarded);
+        else
+            context.queueTask(task);
+    }
+
+    /**
+     * Decodes and handles a rate limited packet once its sender is within the limit.
+     */
+    void handleDeferred(PacketRateLimiter.DeferredPacket packet, MessageContext messageContext){
+        this.decode(new PacketBuffer(Unpooled.wrappedBuffer(packet.data)), packet.index, packet.flags, packet.requestId, new HandlingSink(messageContext));
+    }
+
+    /**
+     * Reads a recorded frame, without deferring rate limited packets.
+     * @see PacketReplay
+     */
+    void readForReplay(PacketBuffer buffer, List<ReceivedPacket> packets){
+        this.read(buffer, ReceivedPacket.Sink.into(packets), false);
+    }
+
+    /**
+     * Reads the packet from a recorded stream which has been reassembled, without deferring rate limited packets.
+     * @see PacketReplay
+     */
+    void readStreamForReplay(PacketBuffer buffer, List<ReceivedPacket> packets){
+        this.read(buffer, ReceivedPacket.Sink.into(packets), false, true);
+    }
+
+    /**
+     * Reads and handles the packet from a completed stream.
+     */
+    void handleStream(PacketBuffer buffer, MessageContext messageContext){
+        this.read(buffer, new HandlingSink(messageContext), messageContext.side == Side.SERVER, true);
+    }
+
+    /**
+     * Handles packets as soon as they are read
+     */
+    private final class HandlingSink implements ReceivedPacket.Sink {
+
+        private final MessageContext messageContext;
+
+        private HandlingSink(MessageContext messageContext){
+            this.messageContext = messageContext;
+        }
+
+        @Override
+        public void accept(ReceivedPacket packet){
+            PacketChannel.this.handle(packet, this.messageContext);
+        }
+
+        @Override
+        public void accept(BasePacket packet){
+            PacketChannel.this.handle(packet, this.messageContext, NO_OP);
+        }
+    }
+
+    String getName(){
+        return this.modid + ":" + this.name;
+    }
+
+    static PacketChannel getChannel(String name){
+        synchronized(CHANNELS){
+            return NAME_TO_CHANNEL.get(name);
+        }
+    }
+
+    static List<PacketChannel> getChannels(){
+        return Arrays.asList(idToChannel);
+    }
+
+    private static List<String> getChannelNames(){
+        synchronized(CHANNELS){
+            List<String> names = new ArrayList<>(CHANNELS.size());
+            for(PacketChannel channel : CHANNELS)
+                names.add(channel.modid + ":" + channel.name);
+            return names;
         }
     }
 
+    /**
+     * Installs the server's channel id table. Passing {@code null} resets all channels to use their names.
+     * @param channelNames channel names indexed by the server's channel ids
+     */
+    static void setServerChannelIds(List<String> channelNames){
+        synchronized(CHANNELS){
+            for(PacketChannel channel : CHANNELS)
+                channel.serverNetworkId = -1;
+            if(channelNames == null){
+                serverIdToChannel = null;
+                return;
+            }
+
+            PacketChannel[] channels = new PacketChannel[channelNames.size()];
+            for(int id = 0; id < channelNames.size(); id++){
+                PacketChannel channel = NAME_TO_CHANNEL.get(channelNames.get(id));
+                if(channel != null){
+                    channel.serverNetworkId = id;
+                    channels[id] = channel;
+                }
+            }
+            serverIdToChannel = channels;
+        }
+    }
+
+    static void acknowledgeChannelIds(EntityPlayer player){
+        PLAYERS_WITHOUT_CHANNEL_IDS.remove(player.getUniqueID());
+    }
+
+    /**
+     * Writes the given channel id, or the channel's name if {@code channelId} is {@code -1}
+     */
+    private void writeChannelReference(PacketBuffer buffer, int channelId){
+        if(channelId < 0){
+            buffer.writeVarInt(0);
+            buffer.writeString(this.modid + ":" + this.name);
+        }else
+            buffer.writeVarInt(channelId + 1);
+    }
+
     /**
      * Don't access this, this may change between versions and is only public because the {@link SimpleNetworkWrapper} requires it to be
      */
     @Deprecated
-    public static class InternalPacket implements IMessage, IMessageHandler<InternalPacket,IMessage> {
+    public static class InternalPacket implements IMessage, IMessageHandler<InternalPacket,IMessage>, ReceivedPacket.Sink {
 
         private PacketChannel channel;
+        /**
+         * Packet to be written
+         */
         private BasePacket packet;
+        /**
+         * First packet which has been read, frames usually hold only a single packet
+         */
+        private BasePacket receivedPacket;
+        private ReceivedPacket receivedMessage;
+        /**
+         * Packets which have been read after the first one, only used for bundles
+         */
+        private List<ReceivedPacket> additionalPackets;
+        /**
+         * Already encoded packets to be written, these are not owned by the internal packet
+         */
+        private List<ByteBuf> encodedPackets;
+        /**
+         * Channel id to be written instead of the channel's name, or {@code -1} to write the name
+         */
+        private int channelId = -1;
 
         public InternalPacket(){
         }
@@ -267,29 +1412,224 @@ public class PacketChannel {
             return this;
         }
 
+        private InternalPacket setEncodedPackets(List<ByteBuf> encodedPackets){
+            this.encodedPackets = encodedPackets;
+            return this;
+        }
+
+        private InternalPacket setChannelId(int channelId){
+            this.channelId = channelId;
+            return this;
+        }
+
         @Override
         public void fromBytes(ByteBuf buffer){
             PacketBuffer packetBuffer = new PacketBuffer(buffer);
-            this.channel = NAME_TO_CHANNEL.get(packetBuffer.readString(32767));
-            if(this.channel == null)
-                throw new IllegalStateException("Couldn't find received channel name!");
+            // A channel id of 0 means the channel's name follows
+            int channelId = packetBuffer.readVarInt() - 1;
+            if(channelId < 0){
+                this.channel = NAME_TO_CHANNEL.get(packetBuffer.readString(32767));
+                if(this.channel == null)
+                    throw new IllegalStateException("Couldn't find received channel name!");
+            }else{
+                this.channel = this.getChannelFromId(channelId);
+                if(this.channel == null)
+                    throw new IllegalStateException("Couldn't find channel for received channel id '" + channelId + "'!");
+            }
+
+            PacketRecorder.record(this.channel, this.isServerbound(), buffer);
+            this.channel.read(packetBuffer, this, this.isServerbound());
+        }
 
-            this.packet = this.channel.read(packetBuffer);
+        @Override
+        public void accept(ReceivedPacket packet){
+            if(this.receivedPacket == null && this.receivedMessage == null)
+                this.receivedMessage = packet;
+            else
+                this.addAdditionalPacket(packet);
+        }
+
+        @Override
+        public void accept(BasePacket packet){
+            if(this.receivedPacket == null && this.receivedMessage == null)
+                this.receivedPacket = packet;
+            else
+                this.addAdditionalPacket(new ReceivedPacket.DecodedPacket(packet));
+        }
+
+        private void addAdditionalPacket(ReceivedPacket packet){
+            if(this.additionalPackets == null)
+                this.additionalPackets = new ArrayList<>();
+            this.additionalPackets.add(packet);
+        }
+
+        boolean isServerbound(){
+            return true;
+        }
+
+        /**
+         * Server-bound packets use the server's channel ids, which are the local ids on the server
+         */
+        PacketChannel getChannelFromId(int channelId){
+            PacketChannel[] channels = idToChannel;
+            return channelId < channels.length ? channels[channelId] : null;
         }
 
         @Override
         public void toBytes(ByteBuf buffer){
             PacketBuffer packetBuffer = new PacketBuffer(buffer);
-            packetBuffer.writeString(this.channel.modid + ":" + this.channel.name);
-
-            this.channel.write(this.packet, packetBuffer);
+            this.channel.writeChannelReference(packetBuffer, this.channelId);
+            if(this.encodedPackets != null)
+                PacketFrames.writeEncoded(this.encodedPackets, packetBuffer);
+            else{
+                int startIndex = packetBuffer.writerIndex();
+                this.channel.write(this.packet, packetBuffer);
+                this.channel.countSent(packetBuffer.slice(startIndex, packetBuffer.writerIndex() - startIndex), 1);
+            }
         }
 
         @Override
         public IMessage onMessage(InternalPacket message, MessageContext context){
-            this.channel.handle(message.packet, context);
+            if(message.receivedPacket != null)
+                this.channel.handle(message.receivedPacket, context, NO_OP);
+            else if(message.receivedMessage != null)
+                this.channel.handle(message.receivedMessage, context);
+            if(message.additionalPackets != null){
+                for(ReceivedPacket packet : message.additionalPackets)
+                    this.channel.handle(packet, context);
+            }
             return null;
         }
     }
 
+    /**
+     * Don't access this, this may change between versions and is only public because the {@link SimpleNetworkWrapper} requires it to be
+     */
+    @Deprecated
+    public static class ClientboundInternalPacket extends InternalPacket {
+
+        public ClientboundInternalPacket(){
+        }
+
+        public ClientboundInternalPacket(PacketChannel channel){
+            super(channel);
+        }
+
+        @Override
+        boolean isServerbound(){
+            return false;
+        }
+
+        /**
+         * Client-bound packets use the server's channel ids, which are mapped by the table received from the server
+         */
+        @Override
+        PacketChannel getChannelFromId(int channelId){
+            PacketChannel[] channels = serverIdToChannel;
+            return channels != null && channelId < channels.length ? channels[channelId] : null;
+        }
+    }
+
+    /**
+     * A complete client-bound frame for an encoded packet, which is built once and then sent to any number of players.
+     * FML requires an array-backed payload for its proxy packets, so rather than composing the encoded packet into a frame
+     * per player, the same frame is handed to every player's connection.
+     */
+    final class SharedFrame {
+
+        private final ByteBuf encodedPacket;
+        /**
+         * Frames for players which have and haven't received the channel id table yet, built once needed
+         */
+        private FMLProxyPacket withChannelId, withChannelName;
+
+        private SharedFrame(ByteBuf encodedPacket){
+            this.encodedPacket = encodedPacket;
+        }
+
+        /**
+         * Sends the frame to the given player. Must be called before the encoded packet is released.
+         */
+        void sendTo(EntityPlayerMP player){
+            FMLProxyPacket frame;
+            if(PLAYERS_WITHOUT_CHANNEL_IDS.contains(player.getUniqueID())){
+                if(this.withChannelName == null)
+                    this.withChannelName = this.build(-1);
+                frame = this.withChannelName;
+            }else{
+                if(this.withChannelId == null)
+                    this.withChannelId = this.build(PacketChannel.this.networkId);
+                frame = this.withChannelId;
+            }
+
+            // Same as SimpleNetworkWrapper#sendTo, but with an already encoded message
+            FMLEmbeddedChannel channel = PacketChannel.this.serverChannel;
+            channel.attr(FMLOutboundHandler.FML_MESSAGETARGET).set(FMLOutboundHandler.OutboundTarget.PLAYER);
+            channel.attr(FMLOutboundHandler.FML_MESSAGETARGETARGS).set(player);
+            channel.writeAndFlush(frame).addListener(ChannelFutureListener.FIRE_EXCEPTION_ON_FAILURE);
+            PacketChannel.this.countSent(this.encodedPacket, 1);
+        }
+
+        private FMLProxyPacket build(int channelId){
+            PacketBuffer buffer = new PacketBuffer(Unpooled.buffer(this.encodedPacket.readableBytes() + 6));
+            buffer.writeByte(CLIENTBOUND_DISCRIMINATOR);
+            PacketChannel.this.writeChannelReference(buffer, channelId);
+            buffer.writeBytes(this.encodedPacket, this.encodedPacket.readerIndex(), this.encodedPacket.readableBytes());
+            return new FMLProxyPacket(buffer, PacketChannel.this.getName());
+        }
+    }
+
+    /**
+     * Encoded packets waiting to be sent to a player at the end of the tick
+     */
+    private static final class Bundle {
+
+        private final List<ByteBuf> packets = new ArrayList<>();
+        /**
+         * Index of the latest queued packet per coalescing key
+         */
+        private Map<Object,Integer> coalescingKeys;
+
+        /**
+         * Adds the given packet to the bundle. Takes ownership of the given buffer.
+         * @return whether a previously queued packet was replaced
+         */
+        private boolean add(Object coalescingKey, ByteBuf packet){
+            boolean replaced = false;
+            if(coalescingKey != null){
+                if(this.coalescingKeys == null)
+                    this.coalescingKeys = new HashMap<>();
+                Integer previous = this.coalescingKeys.put(coalescingKey, this.packets.size());
+                if(previous != null){
+                    // Leave a gap rather than shifting the other packets, the replacement goes at the end to keep it ordered after packets sent in between
+                    this.packets.set(previous, null).release();
+                    replaced = true;
+                }
+            }
+            this.packets.add(packet);
+            return replaced;
+        }
+
+        private List<ByteBuf> getPackets(){
+            if(this.coalescingKeys == null)
+                return this.packets;
+            List<ByteBuf> packets = new ArrayList<>(this.packets.size());
+            for(ByteBuf packet : this.packets){
+                if(packet != null)
+                    packets.add(packet);
+            }
+            return packets;
+        }
+
+        private void release(){
+            for(ByteBuf packet : this.packets){
+                if(packet != null)
+                    packet.release();
+            }
+        }
+    }
+
+    private enum HandlingThread {
+        NETWORK, MAIN, WORKER
+    }
 }
@@ -0,0 +1,170 @@
+package com.supermartijn642.core.network;
+
+import com.supermartijn642.core.CoreLib;
+import com.supermartijn642.core.util.LatencyHistogram;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.*;
+import java.util.function.ToLongFunction;
+
+/**
+ * Created 17/10/2026 by SuperMartijn642
+ */
+public final class PacketChannelMetrics implements PacketChannelMetricsMXBean {
+
+    /**
+     * @return the metrics of all packet channels
+     */
+    public static List<PacketChannelMetrics> getAll(){
+        List<PacketChannelMetrics> metrics = new ArrayList<>();
+        for(PacketChannel channel : PacketChannel.getChannels())
+            metrics.add(channel.getMetrics());
+        return metrics;
+    }
+
+    private final PacketChannel channel;
+    /**
+     * Metrics indexed by the packets' discriminators
+     */
+    private final List<PacketMetrics> index_to_metrics = new ArrayList<>();
+    private final Map<Class<? extends BasePacket>,PacketMetrics> packet_to_metrics = new LinkedHashMap<>();
+
+    PacketChannelMetrics(PacketChannel channel){
+        this.channel = channel;
+    }
+
+    void registerPacket(Class<? extends BasePacket> packetClass){
+        PacketMetrics metrics = new PacketMetrics(packetClass);
+        this.index_to_metrics.add(metrics);
+        this.packet_to_metrics.put(packetClass, metrics);
+    }
+
+    PacketMetrics get(int index){
+        return this.index_to_metrics.get(index);
+    }
+
+    PacketMetrics get(Class<? extends BasePacket> packetClass){
+        return this.packet_to_metrics.get(packetClass);
+    }
+
+    void registerMBean(){
+        try{
+            ObjectName name = new ObjectName("com.supermartijn642.corelib:type=PacketChannel,name=" + ObjectName.quote(this.channel.getName()));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+        }catch(Exception e){
+            CoreLib.LOGGER.warn("Failed to register metrics MBean for channel '" + this.channel.getName() + "'!", e);
+        }
+    }
+
+    @Override
+    public String getChannelName(){
+        return this.channel.getName();
+    }
+
+    /**
+     * @return the metrics for all packet classes registered to the channel
+     */
+    public Collection<PacketMetrics> getPacketMetrics(){
+        return Collections.unmodifiableCollection(this.packet_to_metrics.values());
+    }
+
+    /**
+     * @return the metrics for the given packet class
+     * @throws IllegalArgumentException if the given packet class has not been registered to the channel
+     */
+    public PacketMetrics getPacketMetrics(Class<? extends BasePacket> packetClass){
+        PacketMetrics metrics = this.packet_to_metrics.get(packetClass);
+        if(metrics == null)
+            throw new IllegalArgumentException("Class '" + packetClass + "' has not been registered!");
+        return metrics;
+    }
+
+    @Override
+    public long getPacketsReceived(){
+        return this.sum(PacketMetrics::getPacketsReceived);
+    }
+
+    @Override
+    public long getBytesReceived(){
+        return this.sum(PacketMetrics::getBytesReceived);
+    }
+
+    @Override
+    public long getPacketsSent(){
+        return this.sum(PacketMetrics::getPacketsSent);
+    }
+
+    @Override
+    public long getBytesSent(){
+        return this.sum(PacketMetrics::getBytesSent);
+    }
+
+    @Override
+    public long getDecodeNanos(){
+        return this.sum(PacketMetrics::getDecodeNanos);
+    }
+
+    @Override
+    public long getCompressedPacketCount(){
+        return this.channel.getCompressedPacketCount();
+    }
+
+    @Override
+    public long getBytesSavedByCompression(){
+        return this.channel.getBytesSavedByCompression();
+    }
+
+    @Override
+    public long getCoalescedPacketCount(){
+        return this.channel.getCoalescedPacketCount();
+    }
+
+    @Override
+    public long getRateLimitedPacketCount(){
+        return this.channel.getRateLimitedPacketCount();
+    }
+
+    @Override
+    public long getOverflowedPacketCount(){
+        return this.channel.getOverflowedPacketCount();
+    }
+
+    @Override
+    public long getRejectedAsyncPacketCount(){
+        return this.channel.getRejectedAsyncPacketCount();
+    }
+
+    @Override
+    public String[] getPacketSummaries(){
+        List<String> summaries = new ArrayList<>();
+        for(PacketMetrics metrics : this.packet_to_metrics.values()){
+            if(metrics.getPacketsReceived() == 0 && metrics.getPacketsSent() == 0)
+                continue;
+            summaries.add(summarize(metrics));
+        }
+        return summaries.toArray(new String[0]);
+    }
+
+    @Override
+    public void reset(){
+        for(PacketMetrics metrics : this.packet_to_metrics.values())
+            metrics.reset();
+    }
+
+    static String summarize(PacketMetrics metrics){
+        return metrics.getPacketClass().getSimpleName()
+            + ": in " + metrics.getPacketsReceived() + " (" + metrics.getBytesReceived() + " B, decode " + LatencyHistogram.formatNanos(metrics.getDecodeNanos()) + ")"
+            + ", out " + metrics.getPacketsSent() + " (" + metrics.getBytesSent() + " B)"
+            + ", verify p99 " + LatencyHistogram.formatNanos(metrics.getVerifyTime().getPercentileNanos(0.99))
+            + ", handle avg " + LatencyHistogram.formatNanos(metrics.getHandleTime().getAverageNanos()) + " p99 " + LatencyHistogram.formatNanos(metrics.getHandleTime().getPercentileNanos(0.99))
+            + ", queued p99 " + LatencyHistogram.formatNanos(metrics.getQueueTime().getPercentileNanos(0.99));
+    }
+
+    private long sum(ToLongFunction<PacketMetrics> counter){
+        long sum = 0;
+        for(PacketMetrics metrics : this.index_to_metrics)
+            sum += counter.applyAsLong(metrics);
+        return sum;
+    }
+}
@@ -0,0 +1,43 @@
+package com.supermartijn642.core.network;
+
+/**
+ * Management interface of {@link PacketChannelMetrics}, exposed over JMX for every channel.
+ * <p>
+ * Created 17/10/2026 by SuperMartijn642
+ */
+public interface PacketChannelMetricsMXBean {
+
+    String getChannelName();
+
+    long getPacketsReceived();
+
+    long getBytesReceived();
+
+    long getPacketsSent();
+
+    long getBytesSent();
+
+    long getDecodeNanos();
+
+    long getCompressedPacketCount();
+
+    long getBytesSavedByCompression();
+
+    long getCoalescedPacketCount();
+
+    long getRateLimitedPacketCount();
+
+    long getOverflowedPacketCount();
+
+    long getRejectedAsyncPacketCount();
+
+    /**
+     * @return a summary line per packet class
+     */
+    String[] getPacketSummaries();
+
+    /**
+     * Clears all per packet class counters.
+     */
+    void reset();
+}
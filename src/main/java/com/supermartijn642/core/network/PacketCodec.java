@@ -0,0 +1,446 @@
+package com.supermartijn642.core.network;
+
+import net.minecraft.item.ItemStack;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.network.PacketBuffer;
+import net.minecraft.util.ResourceLocation;
+import net.minecraft.util.math.BlockPos;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.*;
+
+/**
+ * Created 17/10/2026 by SuperMartijn642
+ */
+final class PacketCodec {
+
+    /*
+     * Codecs are created once per class. Fields are accessed through method handles adapted to their exact primitive types,
+     * such that writing and reading neither uses reflection nor boxes primitive values.
+     */
+
+    private static final ClassValue<PacketCodec> CODECS = new ClassValue<PacketCodec>() {
+        @Override
+        protected PacketCodec computeValue(Class<?> type){
+            return new PacketCodec(type);
+        }
+    };
+
+    static PacketCodec get(Class<?> packetClass){
+        return CODECS.get(packetClass);
+    }
+
+    private final Class<?> packetClass;
+    private final List<BooleanField> booleans = new ArrayList<>();
+    private final List<ValueField> values = new ArrayList<>();
+    /**
+     * Number of bytes needed for all boolean values and null flags
+     */
+    private final int flagBytes;
+
+    private PacketCodec(Class<?> packetClass){
+        this.packetClass = packetClass;
+        List<Class<?>> hierarchy = new ArrayList<>();
+        for(Class<?> clazz = packetClass; clazz != null && clazz != Object.class; clazz = clazz.getSuperclass())
+            hierarchy.add(0, clazz);
+
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        for(Class<?> clazz : hierarchy){
+            Field[] fields = clazz.getDeclaredFields();
+            Arrays.sort(fields, Comparator.comparing(Field::getName));
+            for(Field field : fields){
+                PacketField annotation = field.getAnnotation(PacketField.class);
+                if(annotation == null)
+                    continue;
+                if(Modifier.isStatic(field.getModifiers()) || Modifier.isFinal(field.getModifiers()))
+                    throw new IllegalArgumentException("Packet field '" + field.getName() + "' in '" + clazz + "' must not be static or final!");
+
+                MethodHandle getter, setter;
+                try{
+                    field.setAccessible(true);
+                    getter = lookup.unreflectGetter(field);
+                    setter = lookup.unreflectSetter(field);
+                }catch(IllegalAccessException e){
+                    throw new RuntimeException("Failed to access packet field '" + field.getName() + "' in '" + clazz + "'!", e);
+                }
+
+                if(field.getType() == boolean.class)
+                    this.booleans.add(new BooleanField(getter, setter));
+                else
+                    this.values.add(createField(field, annotation.fixedSize(), getter, setter));
+            }
+        }
+
+        int flags = this.booleans.size();
+        for(ValueField field : this.values){
+            if(field.nullable)
+                flags++;
+        }
+        if(flags > 64)
+            throw new IllegalArgumentException("Packet '" + packetClass + "' has more than 64 boolean and nullable fields!");
+        this.flagBytes = (flags + 7) / 8;
+    }
+
+    void write(Object packet, PacketBuffer buffer){
+        try{
+            long flags = 0;
+            int bit = 0;
+            for(BooleanField field : this.booleans){
+                if(field.get(packet))
+                    flags |= 1L << bit;
+                bit++;
+            }
+            for(ValueField field : this.values){
+                if(field.nullable){
+                    if(field.isNull(packet))
+                        flags |= 1L << bit;
+                    bit++;
+                }
+            }
+            for(int i = 0; i < this.flagBytes; i++)
+                buffer.writeByte((int)(flags >>> (i * 8)));
+
+            for(ValueField field : this.values){
+                if(!field.nullable || !field.isNull(packet))
+                    field.write(packet, buffer);
+            }
+        }catch(Throwable e){
+            throw new RuntimeException("Failed to write packet '" + this.packetClass + "'!", e);
+        }
+    }
+
+    void read(Object packet, PacketBuffer buffer){
+        try{
+            long flags = 0;
+            for(int i = 0; i < this.flagBytes; i++)
+                flags |= (long)buffer.readUnsignedByte() << (i * 8);
+
+            int bit = 0;
+            for(BooleanField field : this.booleans)
+                field.set(packet, ((flags >>> bit++) & 1) != 0);
+            for(ValueField field : this.values){
+                if(field.nullable && ((flags >>> bit++) & 1) != 0)
+                    field.setNull(packet);
+                else
+                    field.read(packet, buffer);
+            }
+        }catch(Throwable e){
+            throw new RuntimeException("Failed to read packet '" + this.packetClass + "'!", e);
+        }
+    }
+
+    private static ValueField createField(Field field, boolean fixedSize, MethodHandle getter, MethodHandle setter){
+        Class<?> type = field.getType();
+        if(type == byte.class)
+            return new ByteField(getter, setter);
+        if(type == short.class)
+            return new ShortField(getter, setter);
+        if(type == int.class)
+            return new IntField(getter, setter, fixedSize);
+        if(type == long.class)
+            return new LongField(getter, setter, fixedSize);
+        if(type == float.class)
+            return new FloatField(getter, setter);
+        if(type == double.class)
+            return new DoubleField(getter, setter);
+        if(type == char.class)
+            return new CharField(getter, setter);
+        if(type == String.class)
+            return new ObjectField(getter, setter, (buffer, value) -> buffer.writeString((String)value), buffer -> buffer.readString(32767));
+        if(type.isEnum()){
+            Object[] constants = type.getEnumConstants();
+            return new ObjectField(getter, setter, (buffer, value) -> buffer.writeVarInt(((Enum<?>)value).ordinal()), buffer -> {
+                int ordinal = buffer.readVarInt();
+                if(ordinal < 0 || ordinal >= constants.length)
+                    throw new IllegalArgumentException("Received invalid ordinal '" + ordinal + "' for enum '" + type + "'!");
+                return constants[ordinal];
+            });
+        }
+        if(type == BlockPos.class){
+            if(fixedSize)
+                return new ObjectField(getter, setter, (buffer, value) -> buffer.writeLong(((BlockPos)value).toLong()), buffer -> BlockPos.fromLong(buffer.readLong()));
+            return new ObjectField(getter, setter, (buffer, value) -> {
+                BlockPos pos = (BlockPos)value;
+                buffer.writeVarInt(zigZag(pos.getX()));
+                buffer.writeVarInt(zigZag(pos.getY()));
+                buffer.writeVarInt(zigZag(pos.getZ()));
+            }, buffer -> new BlockPos(unZigZag(buffer.readVarInt()), unZigZag(buffer.readVarInt()), unZigZag(buffer.readVarInt())));
+        }
+        if(type == UUID.class)
+            return new ObjectField(getter, setter, (buffer, value) -> buffer.writeUniqueId((UUID)value), PacketBuffer::readUniqueId);
+        if(type == ResourceLocation.class)
+            return new ObjectField(getter, setter, (buffer, value) -> buffer.writeString(value.toString()), buffer -> new ResourceLocation(buffer.readString(32767)));
+        if(type == NBTTagCompound.class)
+            return new ObjectField(getter, setter, (buffer, value) -> buffer.writeCompoundTag((NBTTagCompound)value), PacketBuffer::readCompoundTag);
+        if(type == ItemStack.class)
+            return new ObjectField(getter, setter, (buffer, value) -> buffer.writeItemStack((ItemStack)value), PacketBuffer::readItemStack);
+        throw new IllegalArgumentException("Packet field '" + field.getName() + "' in '" + field.getDeclaringClass() + "' has unsupported type '" + type + "'!");
+    }
+
+    private static int zigZag(int value){
+        return (value << 1) ^ (value >> 31);
+    }
+
+    private static int unZigZag(int value){
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static long zigZag(long value){
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value){
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static final class BooleanField {
+
+        private final MethodHandle getter, setter;
+
+        private BooleanField(MethodHandle getter, MethodHandle setter){
+            this.getter = getter.asType(MethodType.methodType(boolean.class, Object.class));
+            this.setter = setter.asType(MethodType.methodType(void.class, Object.class, boolean.class));
+        }
+
+        private boolean get(Object packet) throws Throwable{
+            return (boolean)this.getter.invokeExact(packet);
+        }
+
+        private void set(Object packet, boolean value) throws Throwable{
+            this.setter.invokeExact(packet, value);
+        }
+    }
+
+    private abstract static class ValueField {
+
+        /**
+         * Whether the field may be {@code null}, which is true for all non-primitive fields
+         */
+        final boolean nullable;
+
+        ValueField(boolean nullable){
+            this.nullable = nullable;
+        }
+
+        boolean isNull(Object packet) throws Throwable{
+            return false;
+        }
+
+        void setNull(Object packet) throws Throwable{
+            throw new UnsupportedOperationException();
+        }
+
+        abstract void write(Object packet, PacketBuffer buffer) throws Throwable;
+
+        abstract void read(Object packet, PacketBuffer buffer) throws Throwable;
+    }
+
+    private static final class ByteField extends ValueField {
+
+        private final MethodHandle getter, setter;
+
+        private ByteField(MethodHandle getter, MethodHandle setter){
+            super(false);
+            this.getter = getter.asType(MethodType.methodType(byte.class, Object.class));
+            this.setter = setter.asType(MethodType.methodType(void.class, Object.class, byte.class));
+        }
+
+        @Override
+        void write(Object packet, PacketBuffer buffer) throws Throwable{
+            buffer.writeByte((byte)this.getter.invokeExact(packet));
+        }
+
+        @Override
+        void read(Object packet, PacketBuffer buffer) throws Throwable{
+            this.setter.invokeExact(packet, buffer.readByte());
+        }
+    }
+
+    private static final class ShortField extends ValueField {
+
+        private final MethodHandle getter, setter;
+
+        private ShortField(MethodHandle getter, MethodHandle setter){
+            super(false);
+            this.getter = getter.asType(MethodType.methodType(short.class, Object.class));
+            this.setter = setter.asType(MethodType.methodType(void.class, Object.class, short.class));
+        }
+
+        @Override
+        void write(Object packet, PacketBuffer buffer) throws Throwable{
+            buffer.writeShort((short)this.getter.invokeExact(packet));
+        }
+
+        @Override
+        void read(Object packet, PacketBuffer buffer) throws Throwable{
+            this.setter.invokeExact(packet, buffer.readShort());
+        }
+    }
+
+    private static final class IntField extends ValueField {
+
+        private final MethodHandle getter, setter;
+        private final boolean fixedSize;
+
+        private IntField(MethodHandle getter, MethodHandle setter, boolean fixedSize){
+            super(false);
+            this.getter = getter.asType(MethodType.methodType(int.class, Object.class));
+            this.setter = setter.asType(MethodType.methodType(void.class, Object.class, int.class));
+            this.fixedSize = fixedSize;
+        }
+
+        @Override
+        void write(Object packet, PacketBuffer buffer) throws Throwable{
+            int value = (int)this.getter.invokeExact(packet);
+            if(this.fixedSize)
+                buffer.writeInt(value);
+            else
+                buffer.writeVarInt(zigZag(value));
+        }
+
+        @Override
+        void read(Object packet, PacketBuffer buffer) throws Throwable{
+            this.setter.invokeExact(packet, this.fixedSize ? buffer.readInt() : unZigZag(buffer.readVarInt()));
+        }
+    }
+
+    private static final class LongField extends ValueField {
+
+        private final MethodHandle getter, setter;
+        private final boolean fixedSize;
+
+        private LongField(MethodHandle getter, MethodHandle setter, boolean fixedSize){
+            super(false);
+            this.getter = getter.asType(MethodType.methodType(long.class, Object.class));
+            this.setter = setter.asType(MethodType.methodType(void.class, Object.class, long.class));
+            this.fixedSize = fixedSize;
+        }
+
+        @Override
+        void write(Object packet, PacketBuffer buffer) throws Throwable{
+            long value = (long)this.getter.invokeExact(packet);
+            if(this.fixedSize)
+                buffer.writeLong(value);
+            else
+                buffer.writeVarLong(zigZag(value));
+        }
+
+        @Override
+        void read(Object packet, PacketBuffer buffer) throws Throwable{
+            this.setter.invokeExact(packet, this.fixedSize ? buffer.readLong() : unZigZag(buffer.readVarLong()));
+        }
+    }
+
+    private static final class FloatField extends ValueField {
+
+        private final MethodHandle getter, setter;
+
+        private FloatField(MethodHandle getter, MethodHandle setter){
+            super(false);
+            this.getter = getter.asType(MethodType.methodType(float.class, Object.class));
+            this.setter = setter.asType(MethodType.methodType(void.class, Object.class, float.class));
+        }
+
+        @Override
+        void write(Object packet, PacketBuffer buffer) throws Throwable{
+            buffer.writeFloat((float)this.getter.invokeExact(packet));
+        }
+
+        @Override
+        void read(Object packet, PacketBuffer buffer) throws Throwable{
+            this.setter.invokeExact(packet, buffer.readFloat());
+        }
+    }
+
+    private static final class DoubleField extends ValueField {
+
+        private final MethodHandle getter, setter;
+
+        private DoubleField(MethodHandle getter, MethodHandle setter){
+            super(false);
+            this.getter = getter.asType(MethodType.methodType(double.class, Object.class));
+            this.setter = setter.asType(MethodType.methodType(void.class, Object.class, double.class));
+        }
+
+        @Override
+        void write(Object packet, PacketBuffer buffer) throws Throwable{
+            buffer.writeDouble((double)this.getter.invokeExact(packet));
+        }
+
+        @Override
+        void read(Object packet, PacketBuffer buffer) throws Throwable{
+            this.setter.invokeExact(packet, buffer.readDouble());
+        }
+    }
+
+    private static final class CharField extends ValueField {
+
+        private final MethodHandle getter, setter;
+
+        private CharField(MethodHandle getter, MethodHandle setter){
+            super(false);
+            this.getter = getter.asType(MethodType.methodType(char.class, Object.class));
+            this.setter = setter.asType(MethodType.methodType(void.class, Object.class, char.class));
+        }
+
+        @Override
+        void write(Object packet, PacketBuffer buffer) throws Throwable{
+            buffer.writeChar((char)this.getter.invokeExact(packet));
+        }
+
+        @Override
+        void read(Object packet, PacketBuffer buffer) throws Throwable{
+            this.setter.invokeExact(packet, buffer.readChar());
+        }
+    }
+
+    private static final class ObjectField extends ValueField {
+
+        private final MethodHandle getter, setter;
+        private final Writer writer;
+        private final Reader reader;
+
+        private ObjectField(MethodHandle getter, MethodHandle setter, Writer writer, Reader reader){
+            super(true);
+            this.getter = getter.asType(MethodType.methodType(Object.class, Object.class));
+            this.setter = setter.asType(MethodType.methodType(void.class, Object.class, Object.class));
+            this.writer = writer;
+            this.reader = reader;
+        }
+
+        @Override
+        boolean isNull(Object packet) throws Throwable{
+            return (Object)this.getter.invokeExact(packet) == null;
+        }
+
+        @Override
+        void setNull(Object packet) throws Throwable{
+            this.setter.invokeExact(packet, (Object)null);
+        }
+
+        @Override
+        void write(Object packet, PacketBuffer buffer) throws Throwable{
+            this.writer.write(buffer, (Object)this.getter.invokeExact(packet));
+        }
+
+        @Override
+        void read(Object packet, PacketBuffer buffer) throws Throwable{
+            this.setter.invokeExact(packet, this.reader.read(buffer));
+        }
+    }
+
+    private interface Writer {
+
+        void write(PacketBuffer buffer, Object value);
+    }
+
+    private interface Reader {
+
+        Object read(PacketBuffer buffer) throws IOException;
+    }
+}
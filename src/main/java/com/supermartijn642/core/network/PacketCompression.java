@@ -0,0 +1,90 @@
+package com.supermartijn642.core.network;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Created 17/10/2026 by SuperMartijn642
+ */
+final class PacketCompression {
+
+    /**
+     * Maximum size of a decompressed packet, to prevent malicious packets from allocating huge buffers
+     */
+    static final int MAX_DECOMPRESSED_SIZE = 1 << 23;
+
+    private static final ThreadLocal<Deflater> DEFLATER = ThreadLocal.withInitial(Deflater::new);
+    private static final ThreadLocal<Inflater> INFLATER = ThreadLocal.withInitial(Inflater::new);
+    private static final ThreadLocal<byte[]> CHUNK = ThreadLocal.withInitial(() -> new byte[8192]);
+
+    /**
+     * Compresses {@code length} bytes starting at {@code offset} in the given buffer.
+     * @return a new buffer holding the compressed data
+     */
+    static ByteBuf compress(ByteBuf buffer, int offset, int length, int level){
+        Deflater deflater = DEFLATER.get();
+        deflater.reset();
+        deflater.setLevel(level);
+        if(buffer.hasArray())
+            deflater.setInput(buffer.array(), buffer.arrayOffset() + offset, length);
+        else{
+            byte[] input = new byte[length];
+            buffer.getBytes(offset, input);
+            deflater.setInput(input);
+        }
+        deflater.finish();
+
+        byte[] chunk = CHUNK.get();
+        ByteBuf output = Unpooled.buffer(length / 2);
+        while(!deflater.finished()){
+            int count = deflater.deflate(chunk);
+            output.writeBytes(chunk, 0, count);
+        }
+        return output;
+    }
+
+    /**
+     * Decompresses all readable bytes in the given buffer.
+     * @param decompressedSize the expected size of the decompressed data
+     * @return a new buffer holding the decompressed data
+     */
+    static ByteBuf decompress(ByteBuf buffer, int decompressedSize){
+        if(decompressedSize < 0 || decompressedSize > MAX_DECOMPRESSED_SIZE)
+            throw new RuntimeException("Received compressed packet with invalid size '" + decompressedSize + "'!");
+
+        Inflater inflater = INFLATER.get();
+        inflater.reset();
+        int length = buffer.readableBytes();
+        if(buffer.hasArray())
+            inflater.setInput(buffer.array(), buffer.arrayOffset() + buffer.readerIndex(), length);
+        else{
+            byte[] input = new byte[length];
+            buffer.getBytes(buffer.readerIndex(), input);
+            inflater.setInput(input);
+        }
+        buffer.skipBytes(length);
+
+        // The output grows as data is actually inflated, such that the declared size can't be used to allocate large buffers up front
+        byte[] chunk = CHUNK.get();
+        ByteBuf output = Unpooled.buffer(Math.min(decompressedSize, Math.max(length * 4, 256)));
+        try{
+            while(!inflater.finished()){
+                int count = inflater.inflate(chunk);
+                if(count == 0 && (inflater.needsInput() || inflater.needsDictionary()))
+                    throw new RuntimeException("Received truncated compressed packet!");
+                if(output.writerIndex() + count > decompressedSize)
+                    throw new RuntimeException("Compressed packet exceeds its size '" + decompressedSize + "'!");
+                output.writeBytes(chunk, 0, count);
+            }
+        }catch(DataFormatException e){
+            throw new RuntimeException("Received malformed compressed packet!", e);
+        }
+        if(output.writerIndex() != decompressedSize)
+            throw new RuntimeException("Compressed packet did not match its size '" + decompressedSize + "'!");
+        return output;
+    }
+}
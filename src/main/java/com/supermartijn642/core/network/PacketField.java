@@ -0,0 +1,27 @@
+package com.supermartijn642.core.network;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a field of a {@link CodecBasePacket} to be written and read automatically.
+ * <p>
+ * Supported types are all primitives, {@link String}, enums, {@link net.minecraft.util.math.BlockPos}, {@link java.util.UUID},
+ * {@link net.minecraft.util.ResourceLocation}, {@link net.minecraft.nbt.NBTTagCompound} and {@link net.minecraft.item.ItemStack}.
+ * Other fields may be {@code null}. Fields must not be static or final.
+ * <p>
+ * Created 17/10/2026 by SuperMartijn642
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.FIELD)
+public @interface PacketField {
+
+    /**
+     * By default, {@code int} and {@code long} fields are written as zig-zag encoded VarInts, which take less space for values close to zero,
+     * and {@link net.minecraft.util.math.BlockPos} fields are written per coordinate in the same way.
+     * Fixed size fields always take 4 or 8 bytes, which is smaller for large values such as hashes or random seeds.
+     */
+    boolean fixedSize() default false;
+}
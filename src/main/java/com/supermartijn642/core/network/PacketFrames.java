@@ -0,0 +1,90 @@
+package com.supermartijn642.core.network;
+
+import io.netty.buffer.ByteBuf;
+import net.minecraft.network.PacketBuffer;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Reads and writes the parts of the frames sent by {@link PacketChannel} which don't depend on the channel's registered packets.
+ * <p>
+ * Created 17/10/2026 by SuperMartijn642
+ */
+final class PacketFrames {
+
+    /**
+     * Writes a packet header consisting of the packet's index as a VarInt, followed by a flags byte if any flags are set.
+     * The lowest bit of the VarInt indicates whether the flags byte is present.
+     */
+    static void writeHeader(PacketBuffer buffer, int index, int flags){
+        if(flags == 0)
+            buffer.writeVarInt(index << 1);
+        else{
+            buffer.writeVarInt((index << 1) | 1);
+            buffer.writeByte(flags);
+        }
+    }
+
+    /**
+     * Writes a packet header like {@link #writeHeader(PacketBuffer, int, int)}, followed by the given request id if the flags mark a request or response.
+     */
+    static void writeHeader(PacketBuffer buffer, int index, int flags, int requestId){
+        writeHeader(buffer, index, flags);
+        if((flags & (PacketChannel.FLAG_REQUEST | PacketChannel.FLAG_RESPONSE)) != 0)
+            buffer.writeVarInt(requestId);
+    }
+
+    /**
+     * Reads the flags byte following the given header VarInt written by {@link #writeHeader(PacketBuffer, int, int)}, if it is present.
+     * @return the header's flags
+     */
+    static int readFlags(PacketBuffer buffer, int header){
+        return (header & 1) == 0 ? 0 : buffer.readUnsignedByte();
+    }
+
+    /**
+     * @return the packet index from the given header VarInt written by {@link #writeHeader(PacketBuffer, int, int)}
+     */
+    static int getIndex(int header){
+        return header >>> 1;
+    }
+
+    /**
+     * Reads the request id written by {@link #writeHeader(PacketBuffer, int, int, int)}, after the flags.
+     * @return the request id, or {@code 0} if the flags mark neither a request nor a response
+     */
+    static int readRequestId(PacketBuffer buffer, int flags){
+        return (flags & (PacketChannel.FLAG_REQUEST | PacketChannel.FLAG_RESPONSE)) != 0 ? buffer.readVarInt() : 0;
+    }
+
+    /**
+     * Writes the given encoded packets, as a bundle if there is more than one.
+     */
+    static void writeEncoded(List<ByteBuf> encodedPackets, PacketBuffer buffer){
+        if(encodedPackets.size() == 1){
+            ByteBuf encodedPacket = encodedPackets.get(0);
+            buffer.writeBytes(encodedPacket, encodedPacket.readerIndex(), encodedPacket.readableBytes());
+            return;
+        }
+
+        writeHeader(buffer, 0, PacketChannel.FLAG_BUNDLE);
+        buffer.writeVarInt(encodedPackets.size());
+        for(ByteBuf encodedPacket : encodedPackets){
+            buffer.writeVarInt(encodedPacket.readableBytes());
+            buffer.writeBytes(encodedPacket, encodedPacket.readerIndex(), encodedPacket.readableBytes());
+        }
+    }
+
+    /**
+     * Reads the packets in a bundle written by {@link #writeEncoded(List, PacketBuffer)}, after the header.
+     * @param reader called with a buffer holding each bundled packet
+     */
+    static void readBundle(PacketBuffer buffer, Consumer<PacketBuffer> reader){
+        int count = buffer.readVarInt();
+        for(int i = 0; i < count; i++){
+            int length = buffer.readVarInt();
+            reader.accept(new PacketBuffer(buffer.readSlice(length)));
+        }
+    }
+}
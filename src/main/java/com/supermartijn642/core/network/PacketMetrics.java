@@ -0,0 +1,119 @@
+package com.supermartijn642.core.network;
+
+import com.supermartijn642.core.util.LatencyHistogram;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Created 17/10/2026 by SuperMartijn642
+ */
+public final class PacketMetrics {
+
+    private final Class<? extends BasePacket> packetClass;
+    final LongAdder packetsReceived = new LongAdder();
+    final LongAdder bytesReceived = new LongAdder();
+    final LongAdder packetsSent = new LongAdder();
+    final LongAdder bytesSent = new LongAdder();
+    final LongAdder decodeNanos = new LongAdder();
+    final LatencyHistogram verifyTime = new LatencyHistogram();
+    final LatencyHistogram handleTime = new LatencyHistogram();
+    final LatencyHistogram queueTime = new LatencyHistogram();
+
+    PacketMetrics(Class<? extends BasePacket> packetClass){
+        this.packetClass = packetClass;
+    }
+
+    public Class<? extends BasePacket> getPacketClass(){
+        return this.packetClass;
+    }
+
+    /**
+     * @return the number of packets decoded
+     */
+    public long getPacketsReceived(){
+        return this.packetsReceived.sum();
+    }
+
+    /**
+     * @return the number of bytes decoded, excluding packet headers
+     */
+    public long getBytesReceived(){
+        return this.bytesReceived.sum();
+    }
+
+    /**
+     * @return the number of packets sent. Packets sent to multiple players are counted once for every player.
+     */
+    public long getPacketsSent(){
+        return this.packetsSent.sum();
+    }
+
+    /**
+     * @return the number of bytes sent, including packet headers. Packets sent to multiple players are counted once for every player.
+     */
+    public long getBytesSent(){
+        return this.bytesSent.sum();
+    }
+
+    /**
+     * @return the total time spent decoding packets in nanoseconds
+     */
+    public long getDecodeNanos(){
+        return this.decodeNanos.sum();
+    }
+
+    /**
+     * @return the time spent in {@link BasePacket#verify(PacketContext)}
+     */
+    public LatencyHistogram getVerifyTime(){
+        return this.verifyTime;
+    }
+
+    /**
+     * @return the time spent in {@link BasePacket#handle(PacketContext)}, {@link RequestPacket#respond(PacketContext)} or {@link AsyncBasePacket#handleAsync(PacketContext)}
+     */
+    public LatencyHistogram getHandleTime(){
+        return this.handleTime;
+    }
+
+    /**
+     * @return the time packets spent waiting to be handled on the main thread or a worker thread
+     */
+    public LatencyHistogram getQueueTime(){
+        return this.queueTime;
+    }
+
+    /**
+     * Runs the given task, recording its duration as handling time.
+     */
+    void timeHandling(Runnable task){
+        long start = System.nanoTime();
+        try{
+            task.run();
+        }finally{
+            this.handleTime.record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Wraps the given task to record the time until it runs as queue time and its duration as handling time.
+     */
+    Runnable timeQueued(Runnable task){
+        long queuedAt = System.nanoTime();
+        return () -> {
+            this.queueTime.record(System.nanoTime() - queuedAt);
+            this.timeHandling(task);
+        };
+    }
+
+    void reset(){
+        this.packetsReceived.reset();
+        this.bytesReceived.reset();
+        this.packetsSent.reset();
+        this.bytesSent.reset();
+        this.decodeNanos.reset();
+        this.verifyTime.reset();
+        this.handleTime.reset();
+        this.queueTime.reset();
+    }
+}
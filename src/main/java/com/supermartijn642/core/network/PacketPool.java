@@ -0,0 +1,51 @@
+package com.supermartijn642.core.network;
+
+import io.netty.util.Recycler;
+
+import java.util.function.Supplier;
+
+/**
+ * Created 17/10/2026 by SuperMartijn642
+ */
+final class PacketPool {
+
+    private final Recycler<PooledPacket> recycler;
+
+    PacketPool(Supplier<? extends BasePacket> packetSupplier){
+        // Netty's recycler keeps a pool per thread and returns instances recycled on other threads to the thread which created them
+        this.recycler = new Recycler<PooledPacket>() {
+            @Override
+            protected PooledPacket newObject(Handle<PooledPacket> handle){
+                return new PooledPacket(handle, (ResettablePacket)packetSupplier.get());
+            }
+        };
+    }
+
+    PooledPacket get(){
+        return this.recycler.get();
+    }
+
+    /**
+     * Wraps a pooled packet until it is handled, after which it is returned to its pool
+     */
+    static final class PooledPacket implements ReceivedPacket {
+
+        private final Recycler.Handle<PooledPacket> handle;
+        final ResettablePacket packet;
+
+        private PooledPacket(Recycler.Handle<PooledPacket> handle, ResettablePacket packet){
+            this.handle = handle;
+            this.packet = packet;
+        }
+
+        void recycle(){
+            this.packet.reset();
+            this.handle.recycle(this);
+        }
+
+        @Override
+        public BasePacket getPacket(){
+            return this.packet;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.supermartijn642.core.network;
+
+/**
+ * Created 17/10/2026 by SuperMartijn642
+ */
+public final class PacketRateLimit {
+
+    /**
+     * Creates a rate limit which discards packets exceeding the limit.
+     * @param burst            maximum number of packets which may be received in quick succession
+     * @param packetsPerSecond number of packets per second the limit recovers by
+     */
+    public static PacketRateLimit dropExcess(int burst, double packetsPerSecond){
+        return new PacketRateLimit(burst, packetsPerSecond, false);
+    }
+
+    /**
+     * Creates a rate limit which holds on to packets exceeding the limit until the limit has recovered.
+     * At most {@code burst} packets are held per player, further packets are discarded.
+     * @param burst            maximum number of packets which may be received in quick succession
+     * @param packetsPerSecond number of packets per second the limit recovers by
+     */
+    public static PacketRateLimit queueExcess(int burst, double packetsPerSecond){
+        return new PacketRateLimit(burst, packetsPerSecond, true);
+    }
+
+    final int burst;
+    final double tokensPerNano;
+    final boolean queueExcess;
+
+    private PacketRateLimit(int burst, double packetsPerSecond, boolean queueExcess){
+        if(burst <= 0)
+            throw new IllegalArgumentException("Burst size must be positive!");
+        if(!(packetsPerSecond > 0))
+            throw new IllegalArgumentException("Packets per second must be positive!");
+        this.burst = burst;
+        this.tokensPerNano = packetsPerSecond / 1_000_000_000d;
+        this.queueExcess = queueExcess;
+    }
+}
@@ -0,0 +1,180 @@
+package com.supermartijn642.core.network;
+
+import com.supermartijn642.core.CoreLib;
+import net.minecraft.entity.player.EntityPlayerMP;
+import net.minecraft.network.PacketBuffer;
+import net.minecraftforge.fml.common.network.simpleimpl.MessageContext;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Created 17/10/2026 by SuperMartijn642
+ */
+final class PacketRateLimiter {
+
+    private final PacketChannel channel;
+    private final Map<UUID,PlayerState> players = new ConcurrentHashMap<>();
+    private final Map<Integer,LongAdder> droppedPackets = new ConcurrentHashMap<>();
+
+    PacketRateLimiter(PacketChannel channel){
+        this.channel = channel;
+    }
+
+    /**
+     * Captures the remaining data of a rate limited packet, such that it only needs to be decoded once it is known the sender is within the limit.
+     */
+    static DeferredPacket defer(PacketBuffer buffer, int index, int flags, int requestId, PacketRateLimit limit){
+        byte[] data = new byte[buffer.readableBytes()];
+        buffer.readBytes(data);
+        return new DeferredPacket(index, flags, requestId, limit, data);
+    }
+
+    /**
+     * Handles the given packet if its sender is within the packet's rate limit, otherwise the packet is queued or dropped.
+     */
+    void receive(DeferredPacket packet, MessageContext context){
+        EntityPlayerMP player = context.getServerHandler().player;
+        PlayerState state = this.players.computeIfAbsent(player.getUniqueID(), uuid -> new PlayerState());
+        boolean accepted = false;
+        synchronized(state){
+            TokenBucket bucket = state.buckets.computeIfAbsent(packet.index, index -> new TokenBucket(packet.limit, System.nanoTime()));
+            // Packets must not overtake earlier packets of the same type which are still queued
+            if(bucket.queued == 0 && bucket.tryAcquire(packet.limit, System.nanoTime()))
+                accepted = true;
+            else if(packet.limit.queueExcess && bucket.queued < packet.limit.burst){
+                bucket.queued++;
+                state.queue.add(new QueuedPacket(packet, context));
+                return;
+            }
+        }
+
+        if(accepted)
+            this.channel.handleDeferred(packet, context);
+        else
+            this.droppedPackets.computeIfAbsent(packet.index, index -> new LongAdder()).increment();
+    }
+
+    /**
+     * Hands queued packets for which the rate limit has recovered back to their sender's network thread. Must be called from the server thread.
+     */
+    void handleQueued(){
+        if(this.players.isEmpty())
+            return;
+
+        long now = System.nanoTime();
+        List<QueuedPacket> ready = new ArrayList<>();
+        for(PlayerState state : this.players.values()){
+            synchronized(state){
+                if(state.queue.isEmpty())
+                    continue;
+                Iterator<QueuedPacket> iterator = state.queue.iterator();
+                while(iterator.hasNext()){
+                    QueuedPacket queued = iterator.next();
+                    TokenBucket bucket = state.buckets.get(queued.packet.index);
+                    if(bucket.tryAcquire(queued.packet.limit, now)){
+                        iterator.remove();
+                        bucket.queued--;
+                        ready.add(queued);
+                    }
+                }
+            }
+        }
+
+        // Decode and handle the packets on their sender's network thread, such that they are handled on the thread they are registered for
+        for(QueuedPacket queued : ready){
+            queued.context.getServerHandler().netManager.channel().eventLoop().execute(() -> {
+                try{
+                    this.channel.handleDeferred(queued.packet, queued.context);
+                }catch(Exception e){
+                    CoreLib.LOGGER.error("Encountered an exception whilst handling rate limited packet on channel '" + this.channel.getName() + "'!", e);
+                }
+            });
+        }
+    }
+
+    long getDroppedPacketCount(){
+        long count = 0;
+        for(LongAdder adder : this.droppedPackets.values())
+            count += adder.sum();
+        return count;
+    }
+
+    long getDroppedPacketCount(int index){
+        LongAdder adder = this.droppedPackets.get(index);
+        return adder == null ? 0 : adder.sum();
+    }
+
+    void onPlayerLoggedOut(EntityPlayerMP player){
+        this.players.remove(player.getUniqueID());
+    }
+
+    private static final class PlayerState {
+
+        private final Map<Integer,TokenBucket> buckets = new HashMap<>();
+        private final Deque<QueuedPacket> queue = new ArrayDeque<>();
+    }
+
+    private static final class TokenBucket {
+
+        private double tokens;
+        private long lastRefill;
+        /**
+         * Number of queued packets waiting for this bucket
+         */
+        private int queued;
+
+        private TokenBucket(PacketRateLimit limit, long now){
+            this.tokens = limit.burst;
+            this.lastRefill = now;
+        }
+
+        private boolean tryAcquire(PacketRateLimit limit, long now){
+            if(now > this.lastRefill){
+                this.tokens = Math.min(limit.burst, this.tokens + (now - this.lastRefill) * limit.tokensPerNano);
+                this.lastRefill = now;
+            }
+            if(this.tokens < 1)
+                return false;
+            this.tokens--;
+            return true;
+        }
+    }
+
+    private static final class QueuedPacket {
+
+        private final DeferredPacket packet;
+        private final MessageContext context;
+
+        private QueuedPacket(DeferredPacket packet, MessageContext context){
+            this.packet = packet;
+            this.context = context;
+        }
+    }
+
+    /**
+     * Holds the undecoded data of a rate limited packet until it is handled in {@link #receive(DeferredPacket, MessageContext)}
+     */
+    static final class DeferredPacket implements ReceivedPacket {
+
+        final int index;
+        final int flags;
+        final int requestId;
+        final PacketRateLimit limit;
+        final byte[] data;
+
+        private DeferredPacket(int index, int flags, int requestId, PacketRateLimit limit, byte[] data){
+            this.index = index;
+            this.flags = flags;
+            this.requestId = requestId;
+            this.limit = limit;
+            this.data = data;
+        }
+
+        @Override
+        public BasePacket getPacket(){
+            return null;
+        }
+    }
+}
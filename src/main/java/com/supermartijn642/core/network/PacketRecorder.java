@@ -0,0 +1,163 @@
+package com.supermartijn642.core.network;
+
+import com.supermartijn642.core.CoreLib;
+import io.netty.buffer.ByteBuf;
+
+import java.io.*;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Created 17/10/2026 by SuperMartijn642
+ */
+public final class PacketRecorder {
+
+    /*
+     * File format, gzip compressed:
+     * int magic, byte version, followed by records starting with a type byte:
+     * - RECORD_CHANNEL: short channel id, utf channel name
+     * - RECORD_FRAME: long nanos since the start of the recording, short channel id, boolean serverbound, int length, bytes
+     * - RECORD_END
+     * Frames hold the data of a received packet after the channel reference, such that they can be fed back to PacketChannel#read.
+     */
+    static final int MAGIC = 0x434c5043;
+    static final int VERSION = 1;
+    static final int RECORD_CHANNEL = 0, RECORD_FRAME = 1, RECORD_END = 2;
+
+    private static final int MAX_QUEUED_FRAMES = 1 << 16;
+    private static final Frame END = new Frame(null, false, null, 0);
+
+    private static volatile PacketRecorder active;
+
+    /**
+     * Starts recording all packets received on any channel to the given file.
+     * Recording happens on a separate thread, if it can't keep up frames will be dropped.
+     * @throws IllegalStateException if a recording is already in progress
+     */
+    public static synchronized void start(File file) throws IOException{
+        if(active != null)
+            throw new IllegalStateException("A recording is already in progress!");
+        active = new PacketRecorder(file);
+    }
+
+    /**
+     * Stops the current recording and waits for all recorded frames to be written.
+     * @return the file the frames were written to, or {@code null} if no recording was in progress
+     */
+    public static synchronized File stop(){
+        PacketRecorder recorder = active;
+        if(recorder == null)
+            return null;
+        active = null;
+        recorder.finish();
+        return recorder.file;
+    }
+
+    public static boolean isRecording(){
+        return active != null;
+    }
+
+    /**
+     * Records the remaining data in the given buffer without consuming it.
+     */
+    static void record(PacketChannel channel, boolean serverbound, ByteBuf buffer){
+        PacketRecorder recorder = active;
+        if(recorder == null)
+            return;
+        byte[] data = new byte[buffer.readableBytes()];
+        buffer.getBytes(buffer.readerIndex(), data);
+        if(!recorder.frames.offer(new Frame(channel, serverbound, data, System.nanoTime())))
+            recorder.droppedFrames.increment();
+    }
+
+    private final File file;
+    private final DataOutputStream output;
+    private final BlockingQueue<Frame> frames = new LinkedBlockingQueue<>(MAX_QUEUED_FRAMES);
+    private final LongAdder droppedFrames = new LongAdder();
+    private final Map<PacketChannel,Integer> channelIds = new HashMap<>();
+    private final long startTime = System.nanoTime();
+    private final Thread thread;
+
+    private PacketRecorder(File file) throws IOException{
+        this.file = file;
+        File directory = file.getAbsoluteFile().getParentFile();
+        if(directory != null && !directory.exists() && !directory.mkdirs())
+            throw new IOException("Failed to create directory '" + directory + "'!");
+        this.output = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(new FileOutputStream(file))));
+        this.output.writeInt(MAGIC);
+        this.output.writeByte(VERSION);
+        this.thread = new Thread(this::writeFrames, "CoreLib Packet Recorder");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    private void writeFrames(){
+        try{
+            while(true){
+                Frame frame = this.frames.take();
+                if(frame == END)
+                    break;
+
+                Integer channelId = this.channelIds.get(frame.channel);
+                if(channelId == null){
+                    channelId = this.channelIds.size();
+                    this.channelIds.put(frame.channel, channelId);
+                    this.output.writeByte(RECORD_CHANNEL);
+                    this.output.writeShort(channelId);
+                    this.output.writeUTF(frame.channel.getName());
+                }
+                this.output.writeByte(RECORD_FRAME);
+                this.output.writeLong(frame.time - this.startTime);
+                this.output.writeShort(channelId);
+                this.output.writeBoolean(frame.serverbound);
+                this.output.writeInt(frame.data.length);
+                this.output.write(frame.data);
+            }
+            this.output.writeByte(RECORD_END);
+        }catch(InterruptedException | IOException e){
+            CoreLib.LOGGER.error("Encountered an exception whilst recording packets to '" + this.file + "'!", e);
+        }finally{
+            try{
+                this.output.close();
+            }catch(IOException e){
+                CoreLib.LOGGER.error("Failed to close packet recording '" + this.file + "'!", e);
+            }
+        }
+    }
+
+    private void finish(){
+        try{
+            // The writer thread may have stopped due to an error, in which case the queue won't be emptied
+            while(this.thread.isAlive()){
+                if(this.frames.offer(END, 100, TimeUnit.MILLISECONDS))
+                    break;
+            }
+            this.thread.join();
+        }catch(InterruptedException e){
+            Thread.currentThread().interrupt();
+        }
+        long dropped = this.droppedFrames.sum();
+        if(dropped > 0)
+            CoreLib.LOGGER.warn("Dropped " + dropped + " frames whilst recording packets to '" + this.file + "'!");
+    }
+
+    private static final class Frame {
+
+        private final PacketChannel channel;
+        private final boolean serverbound;
+        private final byte[] data;
+        private final long time;
+
+        private Frame(PacketChannel channel, boolean serverbound, byte[] data, long time){
+            this.channel = channel;
+            this.serverbound = serverbound;
+            this.data = data;
+            this.time = time;
+        }
+    }
+}
@@ -0,0 +1,314 @@
+package com.supermartijn642.core.network;
+
+import com.supermartijn642.core.util.Pair;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import net.minecraft.network.PacketBuffer;
+import net.minecraftforge.fml.common.network.simpleimpl.MessageContext;
+import net.minecraftforge.fml.relauncher.Side;
+
+import java.io.*;
+import java.util.*;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Replays packets recorded by {@link PacketRecorder} without any connected players, to benchmark packet decoding and handlers.
+ * By default, packets are only decoded by their channel. Packets are only verified and handled for directions which have been given a
+ * {@link MessageContext}, see {@link #handleServerbound(MessageContext)} and {@link #handleClientbound(MessageContext)}.
+ * Streamed packets are reassembled from their chunks and replayed once complete. Packets on channels which don't exist are skipped.
+ * <p>
+ * Created 17/10/2026 by SuperMartijn642
+ */
+public final class PacketReplay {
+
+    /**
+     * Creates a replay of the given recording.
+     */
+    public static PacketReplay of(File file){
+        return new PacketReplay(file);
+    }
+
+    private final File file;
+    private double speed = 0;
+    /**
+     * Contexts to handle serverbound and clientbound packets with, packets without a context are only decoded
+     */
+    private PacketContext serverboundContext, clientboundContext;
+    /**
+     * Streamed packets which are being reassembled, by channel, direction and stream id
+     */
+    private final Map<Pair<Pair<PacketChannel,Boolean>,Integer>,ByteBuf> streams = new HashMap<>();
+
+    private PacketReplay(File file){
+        this.file = file;
+    }
+
+    /**
+     * Sets the speed at which the recording is replayed, relative to the original timing. A speed of {@code 0} replays all packets without delay,
+     * which is the default.
+     */
+    public PacketReplay speed(double speed){
+        if(speed < 0)
+            throw new IllegalArgumentException("Speed must not be negative!");
+        this.speed = speed;
+        return this;
+    }
+
+    /**
+     * Verifies and handles serverbound packets with the given server-side context, rather than only decoding them.
+     * Handlers act on the context's player and world, hence this should only be used with a test world.
+     */
+    public PacketReplay handleServerbound(MessageContext context){
+        if(context.side != Side.SERVER)
+            throw new IllegalArgumentException("Serverbound packets must be handled with a server-side context!");
+        this.serverboundContext = new PacketContext(context);
+        return this;
+    }
+
+    /**
+     * Verifies and handles clientbound packets with the given client-side context, rather than only decoding them.
+     * Handlers act on the client world, hence this should only be used with a test world.
+     */
+    public PacketReplay handleClientbound(MessageContext context){
+        if(context.side != Side.CLIENT)
+            throw new IllegalArgumentException("Clientbound packets must be handled with a client-side context!");
+        this.clientboundContext = new PacketContext(context);
+        return this;
+    }
+
+    /**
+     * Replays all packets in the recording on the calling thread.
+     * @return timings of the replayed packets
+     */
+    public Result run() throws IOException{
+        Result result = new Result();
+        Map<Integer,PacketChannel> channels = new HashMap<>();
+        this.streams.clear();
+        long startTime = System.nanoTime();
+        try(DataInputStream input = new DataInputStream(new BufferedInputStream(new GZIPInputStream(new FileInputStream(this.file))))){
+            if(input.readInt() != PacketRecorder.MAGIC)
+                throw new IOException("File '" + this.file + "' is not a packet recording!");
+            int version = input.readUnsignedByte();
+            if(version != PacketRecorder.VERSION)
+                throw new IOException("Unsupported packet recording version '" + version + "'!");
+
+            loop:
+            while(true){
+                int type;
+                try{
+                    type = input.readUnsignedByte();
+                }catch(EOFException e){
+                    // Recording was not finished properly
+                    break;
+                }
+                switch(type){
+                    case PacketRecorder.RECORD_CHANNEL:
+                        int id = input.readUnsignedShort();
+                        PacketChannel channel = PacketChannel.getChannel(input.readUTF());
+                        if(channel != null)
+                            channels.put(id, channel);
+                        break;
+                    case PacketRecorder.RECORD_FRAME:
+                        long time = input.readLong();
+                        PacketChannel frameChannel = channels.get(input.readUnsignedShort());
+                        boolean serverbound = input.readBoolean();
+                        byte[] data = new byte[input.readInt()];
+                        input.readFully(data);
+                        if(frameChannel == null){
+                            result.skippedFrames++;
+                            break;
+                        }
+                        if(this.speed > 0)
+                            waitUntil(startTime + (long)(time / this.speed));
+                        this.replayFrame(frameChannel, serverbound, data, result);
+                        break;
+                    case PacketRecorder.RECORD_END:
+                        break loop;
+                    default:
+                        throw new IOException("Encountered unknown record type '" + type + "'!");
+                }
+            }
+        }
+        result.skippedPackets += this.streams.size();
+        this.streams.clear();
+        result.durationNanos = System.nanoTime() - startTime;
+        return result;
+    }
+
+    private void replayFrame(PacketChannel channel, boolean serverbound, byte[] data, Result result){
+        result.frames++;
+        List<ReceivedPacket> packets = new ArrayList<>(1);
+        long decodeStart = System.nanoTime();
+        try{
+            channel.readForReplay(new PacketBuffer(Unpooled.wrappedBuffer(data)), packets);
+        }catch(Exception e){
+            result.failures++;
+            return;
+        }
+        this.replayPackets(channel, serverbound, packets, data.length, System.nanoTime() - decodeStart, result);
+    }
+
+    /**
+     * Adds the given chunk to its stream, and replays the streamed packet once all its chunks have been received.
+     */
+    private void replayStreamChunk(PacketChannel channel, boolean serverbound, PacketStreams.StreamChunk chunk, Result result){
+        Pair<Pair<PacketChannel,Boolean>,Integer> key = Pair.of(Pair.of(channel, serverbound), chunk.streamId);
+        ByteBuf stream;
+        if(chunk.chunkIndex == 0){
+            if(chunk.totalSize <= 0){
+                result.failures++;
+                return;
+            }
+            // Grow the buffer as chunks come in, rather than trusting the recorded size
+            stream = Unpooled.buffer(Math.min(chunk.totalSize, PacketStreams.CHUNK_SIZE), chunk.totalSize);
+            if(this.streams.put(key, stream) != null)
+                result.skippedPackets++;
+        }else{
+            stream = this.streams.get(key);
+            if(stream == null){
+                // The recording started halfway through the stream
+                result.skippedPackets++;
+                return;
+            }
+        }
+
+        // All chunks but the last one are full
+        if(chunk.chunkIndex != stream.writerIndex() / PacketStreams.CHUNK_SIZE || chunk.data.length > stream.maxWritableBytes()){
+            this.streams.remove(key);
+            result.failures++;
+            return;
+        }
+        stream.writeBytes(chunk.data);
+        if(stream.maxWritableBytes() > 0)
+            return;
+
+        this.streams.remove(key);
+        List<ReceivedPacket> packets = new ArrayList<>(1);
+        long decodeStart = System.nanoTime();
+        try{
+            channel.readStreamForReplay(new PacketBuffer(stream), packets);
+        }catch(Exception e){
+            result.failures++;
+            return;
+        }
+        this.replayPackets(channel, serverbound, packets, stream.writerIndex(), System.nanoTime() - decodeStart, result);
+    }
+
+    private void replayPackets(PacketChannel channel, boolean serverbound, List<ReceivedPacket> packets, int size, long decodeNanos, Result result){
+        long decodeTime = decodeNanos / Math.max(1, packets.size());
+        PacketContext context = serverbound ? this.serverboundContext : this.clientboundContext;
+        for(ReceivedPacket packet : packets){
+            if(packet instanceof PacketStreams.StreamChunk){
+                this.replayStreamChunk(channel, serverbound, (PacketStreams.StreamChunk)packet, result);
+                continue;
+            }
+            BasePacket innerPacket = packet.getPacket();
+            if(innerPacket == null){
+                result.skippedPackets++;
+                continue;
+            }
+
+            PacketMetrics metrics = result.packets.computeIfAbsent(innerPacket.getClass(), PacketMetrics::new);
+            metrics.packetsReceived.increment();
+            metrics.bytesReceived.add(size / packets.size());
+            metrics.decodeNanos.add(decodeTime);
+            try{
+                if(context == null)
+                    continue;
+                long verifyStart = System.nanoTime();
+                boolean valid = innerPacket.verify(context);
+                metrics.verifyTime.record(System.nanoTime() - verifyStart);
+                if(!valid)
+                    continue;
+                metrics.timeHandling(() -> {
+                    if(packet instanceof PacketRequests.IncomingRequest)
+                        ((RequestPacket<?>)innerPacket).respond(context);
+                    else if(innerPacket instanceof AsyncBasePacket){
+                        Runnable continuation = ((AsyncBasePacket)innerPacket).handleAsync(context);
+                        if(continuation != null)
+                            continuation.run();
+                    }else
+                        innerPacket.handle(context);
+                });
+            }catch(Exception e){
+                result.failures++;
+            }finally{
+                if(packet instanceof PacketPool.PooledPacket)
+                    ((PacketPool.PooledPacket)packet).recycle();
+            }
+        }
+    }
+
+    private static void waitUntil(long time){
+        long remaining;
+        while((remaining = time - System.nanoTime()) > 0){
+            try{
+                Thread.sleep(remaining / 1_000_000, (int)(remaining % 1_000_000));
+            }catch(InterruptedException e){
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    public static final class Result {
+
+        private final Map<Class<? extends BasePacket>,PacketMetrics> packets = new LinkedHashMap<>();
+        private long frames, skippedFrames, skippedPackets, failures, durationNanos;
+
+        private Result(){
+        }
+
+        /**
+         * @return timings per replayed packet class
+         */
+        public Collection<PacketMetrics> getPacketMetrics(){
+            return Collections.unmodifiableCollection(this.packets.values());
+        }
+
+        /**
+         * @return the number of replayed frames
+         */
+        public long getFrameCount(){
+            return this.frames;
+        }
+
+        /**
+         * @return the number of frames skipped because their channel doesn't exist
+         */
+        public long getSkippedFrameCount(){
+            return this.skippedFrames;
+        }
+
+        /**
+         * @return the number of internal packets, such as cancelled requests, plus the number of incomplete streams which were skipped
+         */
+        public long getSkippedPacketCount(){
+            return this.skippedPackets;
+        }
+
+        /**
+         * @return the number of frames which failed to decode plus the number of packets which threw an exception
+         */
+        public long getFailureCount(){
+            return this.failures;
+        }
+
+        /**
+         * @return the total time the replay took in nanoseconds
+         */
+        public long getDurationNanos(){
+            return this.durationNanos;
+        }
+
+        /**
+         * @return a summary line per packet class
+         */
+        public String[] getPacketSummaries(){
+            List<String> summaries = new ArrayList<>();
+            for(PacketMetrics metrics : this.packets.values())
+                summaries.add(PacketChannelMetrics.summarize(metrics));
+            return summaries.toArray(new String[0]);
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package com.supermartijn642.core.network;
+
+import com.google.common.reflect.TypeToken;
+import com.supermartijn642.core.ClientUtils;
+import com.supermartijn642.core.CoreLib;
+import net.minecraft.entity.player.EntityPlayerMP;
+import net.minecraftforge.fml.common.network.simpleimpl.MessageContext;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Created 17/10/2026 by SuperMartijn642
+ */
+final class PacketRequests {
+
+    /**
+     * Response class per request class, as declared by the request's type argument for {@link RequestPacket}
+     */
+    private static final ClassValue<Class<?>> RESPONSE_CLASSES = new ClassValue<Class<?>>() {
+        @Override
+        protected Class<?> computeValue(Class<?> type){
+            // Resolves to the bound BasePacket if the request class doesn't specify its response type
+            return TypeToken.of(type).resolveType(RequestPacket.class.getTypeParameters()[0]).getRawType();
+        }
+    };
+
+    /**
+     * @return the response class declared by the given request class, see {@link RequestPacket}
+     */
+    static Class<?> getResponseClass(Class<?> requestClass){
+        return RESPONSE_CLASSES.get(requestClass);
+    }
+
+    private final PacketChannel channel;
+    private final AtomicInteger nextRequestId = new AtomicInteger();
+    private volatile long timeoutMillis = 10000;
+    private volatile int maxRequestsInFlight = 16;
+
+    /**
+     * Requests sent to the server which haven't received a response yet, only used client-side
+     */
+    private final Map<Integer,PendingRequest<?>> pendingRequests = new ConcurrentHashMap<>();
+    /**
+     * Ids of requests per player which haven't been responded to yet, only used server-side
+     */
+    private final Map<UUID,Set<Integer>> requestsInFlight = new ConcurrentHashMap<>();
+
+    PacketRequests(PacketChannel channel){
+        this.channel = channel;
+    }
+
+    long getTimeout(){
+        return this.timeoutMillis;
+    }
+
+    void setTimeout(long timeoutMillis){
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    void setMaxRequestsInFlight(int maxRequestsInFlight){
+        this.maxRequestsInFlight = maxRequestsInFlight;
+    }
+
+    <R extends BasePacket> CompletableFuture<R> sendToServer(RequestPacket<R> request, long timeoutMillis){
+        CompletableFuture<R> future = new CompletableFuture<>();
+        if(this.pendingRequests.size() >= this.maxRequestsInFlight){
+            future.completeExceptionally(new IllegalStateException("Too many requests in flight on channel '" + this.channel.getName() + "'!"));
+            return future;
+        }
+
+        int requestId = this.nextRequestId.getAndIncrement();
+        this.pendingRequests.put(requestId, new PendingRequest<>(future, getResponseClass(request.getClass()), System.currentTimeMillis() + timeoutMillis));
+        future.whenComplete((response, exception) -> {
+            // Let the server know it no longer needs to respond
+            if(future.isCancelled() && this.pendingRequests.remove(requestId) != null)
+                this.channel.sendRequestCancel(requestId);
+        });
+        this.channel.sendRequest(request, requestId);
+        return future;
+    }
+
+    /**
+     * Handles a request received by the server.
+     */
+    void receiveRequest(IncomingRequest request, MessageContext messageContext, boolean queued, PacketMetrics metrics){
+        EntityPlayerMP player = messageContext.getServerHandler().player;
+        Set<Integer> inFlight = this.requestsInFlight.computeIfAbsent(player.getUniqueID(), uuid -> ConcurrentHashMap.newKeySet());
+        if(inFlight.size() >= this.maxRequestsInFlight || !inFlight.add(request.requestId)){
+            this.channel.sendResponse(player, request.requestId, null);
+            return;
+        }
+
+        PacketContext context = PacketChannel.getContext(messageContext);
+        long verifyStart = System.nanoTime();
+        boolean valid = request.request.verify(context);
+        metrics.verifyTime.record(System.nanoTime() - verifyStart);
+        if(!valid){
+            inFlight.remove(request.requestId);
+            this.channel.sendResponse(player, request.requestId, null);
+            return;
+        }
+
+        Runnable task = () -> {
+            // Check whether the request was cancelled in the meantime
+            if(!inFlight.contains(request.requestId))
+                return;
+            BasePacket response = null;
+            try{
+                response = request.request.respond(context);
+            }catch(Exception e){
+                CoreLib.LOGGER.error("Encountered an exception whilst responding to request '" + request.request.getClass() + "' on channel '" + this.channel.getName() + "'!", e);
+            }
+            if(inFlight.remove(request.requestId))
+                this.channel.sendResponse(player, request.requestId, response);
+        };
+        if(queued)
+            this.channel.queueTask(context, metrics.timeQueued(task), () -> {
+                // Reject the request rather than leaving the client waiting
+                if(inFlight.remove(request.requestId))
+                    this.channel.sendResponse(player, request.requestId, null);
+            });
+        else
+            metrics.timeHandling(task);
+    }
+
+    void receiveCancel(IncomingCancel cancel, MessageContext messageContext){
+        if(cancel.isRequest){
+            // The client cancelled a request
+            Set<Integer> inFlight = this.requestsInFlight.get(messageContext.getServerHandler().player.getUniqueID());
+            if(inFlight != null)
+                inFlight.remove(cancel.requestId);
+        }else{
+            // The server rejected a request
+            PendingRequest<?> request = this.pendingRequests.remove(cancel.requestId);
+            if(request != null)
+                request.future.completeExceptionally(new IllegalStateException("Request was rejected by the server on channel '" + this.channel.getName() + "'!"));
+        }
+    }
+
+    void receiveResponse(IncomingResponse response, MessageContext messageContext, boolean queued){
+        PendingRequest<?> request = this.pendingRequests.remove(response.requestId);
+        if(request == null)
+            return;
+
+        PacketContext context = PacketChannel.getContext(messageContext);
+        if(!response.response.verify(context)){
+            request.future.completeExceptionally(new IllegalStateException("Received invalid response on channel '" + this.channel.getName() + "'!"));
+            return;
+        }
+        if(queued)
+            ClientUtils.queueTask(() -> request.complete(response.response));
+        else
+            request.complete(response.response);
+    }
+
+    /**
+     * Fails all requests which have passed their timeout, should be called every client tick.
+     */
+    void checkTimeouts(){
+        if(this.pendingRequests.isEmpty())
+            return;
+
+        long now = System.currentTimeMillis();
+        for(Map.Entry<Integer,PendingRequest<?>> entry : this.pendingRequests.entrySet()){
+            if(entry.getValue().deadline < now && this.pendingRequests.remove(entry.getKey(), entry.getValue())){
+                entry.getValue().future.completeExceptionally(new TimeoutException("Request timed out on channel '" + this.channel.getName() + "'!"));
+                this.channel.sendRequestCancel(entry.getKey());
+            }
+        }
+    }
+
+    void onPlayerLoggedOut(EntityPlayerMP player){
+        this.requestsInFlight.remove(player.getUniqueID());
+    }
+
+    void onDisconnectedFromServer(){
+        for(Integer requestId : this.pendingRequests.keySet()){
+            PendingRequest<?> request = this.pendingRequests.remove(requestId);
+            if(request != null)
+                request.future.completeExceptionally(new IllegalStateException("Disconnected from the server!"));
+        }
+    }
+
+    private static class PendingRequest<R extends BasePacket> {
+
+        private final CompletableFuture<R> future;
+        private final Class<?> responseClass;
+        private final long deadline;
+
+        private PendingRequest(CompletableFuture<R> future, Class<?> responseClass, long deadline){
+            this.future = future;
+            this.responseClass = responseClass;
+            this.deadline = deadline;
+        }
+
+        private void complete(BasePacket response){
+            if(this.responseClass.isInstance(response))
+                //noinspection unchecked
+                this.future.complete((R)response);
+            else
+                this.future.completeExceptionally(new IllegalStateException("Received response '" + response.getClass() + "' for a request expecting '" + this.responseClass + "'!"));
+        }
+    }
+
+    /**
+     * Wraps a received request until it is handled in {@link #receiveRequest(IncomingRequest, MessageContext, boolean, PacketMetrics)}
+     */
+    static final class IncomingRequest implements ReceivedPacket {
+
+        final int requestId;
+        final RequestPacket<?> request;
+
+        IncomingRequest(int requestId, RequestPacket<?> request){
+            this.requestId = requestId;
+            this.request = request;
+        }
+
+        @Override
+        public BasePacket getPacket(){
+            return this.request;
+        }
+    }
+
+    /**
+     * Wraps a received response until it is handled in {@link #receiveResponse(IncomingResponse, MessageContext, boolean)}
+     */
+    static final class IncomingResponse implements ReceivedPacket {
+
+        final int requestId;
+        final BasePacket response;
+
+        IncomingResponse(int requestId, BasePacket response){
+            this.requestId = requestId;
+            this.response = response;
+        }
+
+        @Override
+        public BasePacket getPacket(){
+            return this.response;
+        }
+    }
+
+    /**
+     * A cancelled request from the client or a rejected request from the server
+     */
+    static final class IncomingCancel implements ReceivedPacket {
+
+        final int requestId;
+        final boolean isRequest;
+
+        IncomingCancel(int requestId, boolean isRequest){
+            this.requestId = requestId;
+            this.isRequest = isRequest;
+        }
+
+        @Override
+        public BasePacket getPacket(){
+            return null;
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package com.supermartijn642.core.network;
+
+import com.supermartijn642.core.CommonUtils;
+import com.supermartijn642.core.CoreLib;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import net.minecraft.entity.player.EntityPlayerMP;
+import net.minecraft.network.PacketBuffer;
+import net.minecraftforge.fml.common.network.simpleimpl.MessageContext;
+import net.minecraftforge.fml.relauncher.Side;
+
+import java.util.Deque;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Created 17/10/2026 by SuperMartijn642
+ */
+final class PacketStreams {
+
+    /**
+     * Maximum number of data bytes in a single chunk
+     */
+    static final int CHUNK_SIZE = 16384;
+
+    private final PacketChannel channel;
+    private final AtomicInteger nextStreamId = new AtomicInteger();
+    /**
+     * Maximum number of bytes sent per connection per tick
+     */
+    private volatile int bytesPerTick = 4 * CHUNK_SIZE;
+    /**
+     * Maximum size of a single stream, incoming streams which are larger will be discarded
+     */
+    private volatile int maxStreamSize = 1 << 23;
+
+    /**
+     * Streams are kept by the player's uuid, as the player entity gets replaced when respawning
+     */
+    private final Map<UUID,Deque<OutgoingStream>> clientboundStreams = new ConcurrentHashMap<>();
+    private final Deque<OutgoingStream> serverboundStreams = new ConcurrentLinkedDeque<>();
+    private final Map<UUID,Map<Integer,IncomingStream>> serverIncomingStreams = new ConcurrentHashMap<>();
+    private final Map<Integer,IncomingStream> clientIncomingStreams = new ConcurrentHashMap<>();
+
+    PacketStreams(PacketChannel channel){
+        this.channel = channel;
+    }
+
+    void setBytesPerTick(int bytesPerTick){
+        this.bytesPerTick = bytesPerTick;
+    }
+
+    void setMaxStreamSize(int maxStreamSize){
+        this.maxStreamSize = maxStreamSize;
+    }
+
+    /**
+     * Queues the given encoded packet to be streamed to the given player. Takes ownership of the given buffer.
+     */
+    void queueToPlayer(EntityPlayerMP player, ByteBuf encodedPacket){
+        this.checkSize(encodedPacket);
+        this.clientboundStreams.computeIfAbsent(player.getUniqueID(), uuid -> new ConcurrentLinkedDeque<>()).add(new OutgoingStream(this.nextStreamId.getAndIncrement(), encodedPacket));
+    }
+
+    /**
+     * Queues the given encoded packet to be streamed to the server. Takes ownership of the given buffer.
+     */
+    void queueToServer(ByteBuf encodedPacket){
+        this.checkSize(encodedPacket);
+        this.serverboundStreams.add(new OutgoingStream(this.nextStreamId.getAndIncrement(), encodedPacket));
+    }
+
+    private void checkSize(ByteBuf encodedPacket){
+        int size = encodedPacket.readableBytes();
+        if(size > this.maxStreamSize){
+            encodedPacket.release();
+            throw new IllegalArgumentException("Packet of size '" + size + "' exceeds the maximum stream size of '" + this.maxStreamSize + "'!");
+        }
+    }
+
+    /**
+     * Sends the next chunks of the client-bound streams, within the per tick budget.
+     */
+    void sendClientboundChunks(){
+        for(Map.Entry<UUID,Deque<OutgoingStream>> entry : this.clientboundStreams.entrySet()){
+            EntityPlayerMP player = CommonUtils.getServer().getPlayerList().getPlayerByUUID(entry.getKey());
+            if(player == null){
+                // The player logged out
+                if(this.clientboundStreams.remove(entry.getKey(), entry.getValue()))
+                    entry.getValue().forEach(stream -> stream.data.release());
+                continue;
+            }
+            this.sendChunks(entry.getValue(), chunk -> this.channel.sendEncodedToPlayer(player, chunk));
+            if(entry.getValue().isEmpty())
+                this.clientboundStreams.remove(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Sends the next chunks of the server-bound streams, within the per tick budget.
+     */
+    void sendServerboundChunks(){
+        this.sendChunks(this.serverboundStreams, this.channel::sendEncodedToServer);
+    }
+
+    private void sendChunks(Deque<OutgoingStream> streams, Consumer<ByteBuf> sender){
+        int budget = this.bytesPerTick;
+        OutgoingStream stream;
+        // Send chunks from each stream in turn, such that streams are interleaved fairly
+        while(budget > 0 && (stream = streams.poll()) != null){
+            ByteBuf chunk = stream.nextChunk();
+            budget -= chunk.readableBytes();
+            try{
+                sender.accept(chunk);
+            }finally{
+                chunk.release();
+            }
+            if(stream.isFinished())
+                stream.data.release();
+            else
+                streams.addLast(stream);
+        }
+    }
+
+    /**
+     * Writes the next chunk of at most {@link #CHUNK_SIZE} bytes from the given stream data, including the header.
+     * The first chunk of a stream also holds the stream's total size.
+     */
+    static ByteBuf writeChunk(int streamId, int chunkIndex, ByteBuf data){
+        PacketBuffer chunk = new PacketBuffer(Unpooled.buffer());
+        PacketFrames.writeHeader(chunk, 0, PacketChannel.FLAG_STREAM_CHUNK);
+        chunk.writeVarInt(streamId);
+        chunk.writeVarInt(chunkIndex);
+        if(chunkIndex == 0)
+            chunk.writeVarInt(data.readableBytes());
+        chunk.writeBytes(data, Math.min(CHUNK_SIZE, data.readableBytes()));
+        return chunk;
+    }
+
+    /**
+     * Reads a chunk written by {@link #writeChunk(int, int, ByteBuf)}, after the header.
+     */
+    static StreamChunk readChunk(PacketBuffer buffer){
+        int streamId = buffer.readVarInt();
+        int chunkIndex = buffer.readVarInt();
+        int totalSize = chunkIndex == 0 ? buffer.readVarInt() : -1;
+        if(buffer.readableBytes() > CHUNK_SIZE)
+            throw new RuntimeException("Received stream chunk of invalid size '" + buffer.readableBytes() + "'!");
+        byte[] data = new byte[buffer.readableBytes()];
+        buffer.readBytes(data);
+        return new StreamChunk(streamId, chunkIndex, totalSize, data);
+    }
+
+    void receiveChunk(StreamChunk chunk, MessageContext context){
+        Map<Integer,IncomingStream> streams = context.side == Side.SERVER ?
+            this.serverIncomingStreams.computeIfAbsent(context.getServerHandler().player.getUniqueID(), uuid -> new ConcurrentHashMap<>()) :
+            this.clientIncomingStreams;
+
+        IncomingStream stream;
+        if(chunk.chunkIndex == 0){
+            // Limit the memory used by a single connection to two maximum size streams
+            long pendingSize = chunk.totalSize;
+            for(IncomingStream other : streams.values())
+                pendingSize += other.data.capacity();
+            // Every packet takes at least one byte, so empty streams can't be valid
+            if(chunk.totalSize <= 0 || chunk.totalSize > this.maxStreamSize || pendingSize > 2L * this.maxStreamSize){
+                CoreLib.LOGGER.warn("Discarding packet stream of size '" + chunk.totalSize + "' on channel '" + this.channel.getName() + "'!");
+                return;
+            }
+            stream = new IncomingStream(chunk.totalSize);
+            IncomingStream previous = streams.put(chunk.streamId, stream);
+            if(previous != null)
+                previous.data.release();
+        }else{
+            stream = streams.get(chunk.streamId);
+            // The stream may have been discarded
+            if(stream == null)
+                return;
+        }
+
+        if(chunk.chunkIndex != stream.nextChunk || chunk.data.length > stream.data.writableBytes()){
+            streams.remove(chunk.streamId);
+            stream.data.release();
+            throw new RuntimeException("Received invalid chunk for packet stream on channel '" + this.channel.getName() + "'!");
+        }
+        stream.data.writeBytes(chunk.data);
+        stream.nextChunk++;
+
+        if(!stream.data.isWritable()){
+            streams.remove(chunk.streamId);
+            try{
+                this.channel.handleStream(new PacketBuffer(stream.data), context);
+            }finally{
+                stream.data.release();
+            }
+        }
+    }
+
+    void onPlayerLoggedOut(EntityPlayerMP player){
+        Deque<OutgoingStream> outgoing = this.clientboundStreams.remove(player.getUniqueID());
+        if(outgoing != null)
+            outgoing.forEach(stream -> stream.data.release());
+        Map<Integer,IncomingStream> incoming = this.serverIncomingStreams.remove(player.getUniqueID());
+        if(incoming != null)
+            incoming.values().forEach(stream -> stream.data.release());
+    }
+
+    void onDisconnectedFromServer(){
+        OutgoingStream stream;
+        while((stream = this.serverboundStreams.poll()) != null)
+            stream.data.release();
+        this.clientIncomingStreams.values().forEach(incoming -> incoming.data.release());
+        this.clientIncomingStreams.clear();
+    }
+
+    private static class OutgoingStream {
+
+        private final int id;
+        private final ByteBuf data;
+        private int nextChunk = 0;
+
+        private OutgoingStream(int id, ByteBuf data){
+            this.id = id;
+            this.data = data;
+        }
+
+        private ByteBuf nextChunk(){
+            return writeChunk(this.id, this.nextChunk++, this.data);
+        }
+
+        private boolean isFinished(){
+            return !this.data.isReadable();
+        }
+    }
+
+    private static class IncomingStream {
+
+        private final ByteBuf data;
+        private int nextChunk = 0;
+
+        private IncomingStream(int size){
+            this.data = Unpooled.buffer(size, size);
+        }
+    }
+
+    /**
+     * Holds a received chunk until it can be matched with its stream in {@link #receiveChunk(StreamChunk, MessageContext)}
+     */
+    static final class StreamChunk implements ReceivedPacket {
+
+        final int streamId;
+        final int chunkIndex;
+        final int totalSize;
+        final byte[] data;
+
+        private StreamChunk(int streamId, int chunkIndex, int totalSize, byte[] data){
+            this.streamId = streamId;
+            this.chunkIndex = chunkIndex;
+            this.totalSize = totalSize;
+            this.data = data;
+        }
+
+        @Override
+        public BasePacket getPacket(){
+            return null;
+        }
+    }
+}
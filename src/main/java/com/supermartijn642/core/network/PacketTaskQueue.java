@@ -0,0 +1,124 @@
+package com.supermartijn642.core.network;
+
+import com.supermartijn642.core.CoreLib;
+import com.supermartijn642.core.TextComponents;
+import net.minecraft.entity.player.EntityPlayerMP;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Created 17/10/2026 by SuperMartijn642
+ */
+final class PacketTaskQueue {
+
+    private final PacketChannel channel;
+    private final int capacityPerPlayer;
+    private final long budgetNanos;
+    private final QueueOverflowPolicy overflowPolicy;
+    private final Map<UUID,MpscRingBuffer<QueuedTask>> queues = new ConcurrentHashMap<>();
+    private final LongAdder overflowedTasks = new LongAdder();
+    /**
+     * Players which are already being disconnected for overflowing their queue
+     */
+    private final Set<UUID> disconnectingPlayers = ConcurrentHashMap.newKeySet();
+    /**
+     * Used to rotate which player's tasks are run first, only accessed from the server thread
+     */
+    private int startOffset = 0;
+
+    PacketTaskQueue(PacketChannel channel, int capacityPerPlayer, long budgetNanos, QueueOverflowPolicy overflowPolicy){
+        this.channel = channel;
+        this.capacityPerPlayer = capacityPerPlayer;
+        this.budgetNanos = budgetNanos;
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    /**
+     * Queues the given task to be run on the server thread. May be called from any thread.
+     * @param onDiscarded called instead of the task if the task gets dropped
+     */
+    void add(EntityPlayerMP player, Runnable task, Runnable onDiscarded){
+        MpscRingBuffer<QueuedTask> queue = this.queues.computeIfAbsent(player.getUniqueID(), uuid -> new MpscRingBuffer<>(this.capacityPerPlayer));
+        if(queue.offer(new QueuedTask(task, onDiscarded)))
+            return;
+
+        this.overflowedTasks.increment();
+        switch(this.overflowPolicy){
+            case DROP:
+                onDiscarded.run();
+                break;
+            case DISCONNECT:
+                onDiscarded.run();
+                // Only schedule a single disconnect, rather than one for every packet which arrives in the meantime
+                if(!this.disconnectingPlayers.add(player.getUniqueID()))
+                    break;
+                CoreLib.LOGGER.warn("Disconnecting player '" + player.getName() + "' for sending too many packets on channel '" + this.channel.getName() + "'!");
+                player.getServer().addScheduledTask(() -> player.connection.disconnect(TextComponents.string("Sent too many packets").get()));
+                break;
+            case SPILL:
+                player.getServer().addScheduledTask(task);
+                break;
+        }
+    }
+
+    /**
+     * Runs queued tasks until all queues are empty or the time budget is used up.
+     * Players take turns, such that a single player can't use up the entire budget.
+     */
+    void drain(){
+        if(this.queues.isEmpty())
+            return;
+
+        List<MpscRingBuffer<QueuedTask>> queues = new ArrayList<>(this.queues.values());
+        int offset = Math.floorMod(this.startOffset++, queues.size());
+        long deadline = System.nanoTime() + this.budgetNanos;
+        boolean ranTask = true;
+        while(ranTask){
+            ranTask = false;
+            for(int i = 0; i < queues.size(); i++){
+                QueuedTask task = queues.get((offset + i) % queues.size()).poll();
+                if(task == null)
+                    continue;
+                ranTask = true;
+                try{
+                    task.task.run();
+                }catch(Exception e){
+                    CoreLib.LOGGER.error("Encountered an exception whilst handling packet on channel '" + this.channel.getName() + "'!", e);
+                }
+                if(System.nanoTime() >= deadline)
+                    return;
+            }
+        }
+    }
+
+    long getOverflowedTaskCount(){
+        return this.overflowedTasks.sum();
+    }
+
+    void onPlayerLoggedOut(EntityPlayerMP player){
+        MpscRingBuffer<QueuedTask> queue = this.queues.remove(player.getUniqueID());
+        if(queue != null){
+            QueuedTask task;
+            while((task = queue.poll()) != null)
+                task.onDiscarded.run();
+        }
+        this.disconnectingPlayers.remove(player.getUniqueID());
+    }
+
+    private static final class QueuedTask {
+
+        private final Runnable task;
+        private final Runnable onDiscarded;
+
+        private QueuedTask(Runnable task, Runnable onDiscarded){
+            this.task = task;
+            this.onDiscarded = onDiscarded;
+        }
+    }
+}
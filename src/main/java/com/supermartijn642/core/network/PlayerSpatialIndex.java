@@ -0,0 +1,140 @@
+package com.supermartijn642.core.network;
+
+import net.minecraft.entity.player.EntityPlayerMP;
+import net.minecraft.util.math.MathHelper;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Created 17/10/2026 by SuperMartijn642
+ */
+final class PlayerSpatialIndex {
+
+    /**
+     * Cells are 32 by 32 blocks and span the full height of the world
+     */
+    private static final int CELL_SHIFT = 5;
+
+    private static final Map<Integer,Map<Long,Set<Entry>>> CELLS = new ConcurrentHashMap<>();
+    /**
+     * Entries are keyed by the players' uuids, since a player's entity gets replaced when it respawns
+     */
+    private static final Map<UUID,Entry> ENTRIES = new ConcurrentHashMap<>();
+
+    /**
+     * Moves the given player to its current cell. Must be called from the server thread.
+     */
+    static void update(EntityPlayerMP player){
+        int dimension = player.dimension;
+        long cell = cellKey(MathHelper.floor(player.posX) >> CELL_SHIFT, MathHelper.floor(player.posZ) >> CELL_SHIFT);
+        Entry entry = ENTRIES.get(player.getUniqueID());
+        if(entry == null){
+            entry = new Entry(player, dimension, cell);
+            ENTRIES.put(player.getUniqueID(), entry);
+            addToCell(entry);
+            return;
+        }
+
+        // Always point to the latest entity, such that respawned players don't keep their old entity and world around
+        entry.player = player;
+        if(entry.dimension == dimension && entry.cell == cell)
+            return;
+        removeFromCell(entry);
+        entry.dimension = dimension;
+        entry.cell = cell;
+        addToCell(entry);
+    }
+
+    /**
+     * Removes the given player from the index. Must be called from the server thread.
+     */
+    static void remove(EntityPlayerMP player){
+        Entry entry = ENTRIES.remove(player.getUniqueID());
+        if(entry != null)
+            removeFromCell(entry);
+    }
+
+    /**
+     * Removes all players in the given dimension from the index. Must be called from the server thread.
+     */
+    static void removeDimension(int dimension){
+        CELLS.remove(dimension);
+        ENTRIES.values().removeIf(entry -> entry.dimension == dimension);
+    }
+
+    private static void addToCell(Entry entry){
+        CELLS.computeIfAbsent(entry.dimension, d -> new ConcurrentHashMap<>()).computeIfAbsent(entry.cell, c -> ConcurrentHashMap.newKeySet()).add(entry);
+    }
+
+    private static void removeFromCell(Entry entry){
+        Map<Long,Set<Entry>> cells = CELLS.get(entry.dimension);
+        if(cells == null)
+            return;
+        Set<Entry> entries = cells.get(entry.cell);
+        if(entries != null){
+            entries.remove(entry);
+            if(entries.isEmpty())
+                cells.remove(entry.cell, entries);
+        }
+    }
+
+    /**
+     * Calls the given consumer for every player in {@code dimension} within {@code radius} blocks of the given position.
+     * Selects the same players as {@link net.minecraftforge.fml.common.network.NetworkRegistry.TargetPoint}, based on the players' positions at the end of their last tick.
+     */
+    static void forEachPlayerNear(int dimension, double x, double y, double z, double radius, Consumer<EntityPlayerMP> consumer){
+        Map<Long,Set<Entry>> cells = CELLS.get(dimension);
+        if(cells == null || cells.isEmpty())
+            return;
+
+        int minX = MathHelper.floor(x - radius) >> CELL_SHIFT, maxX = MathHelper.floor(x + radius) >> CELL_SHIFT;
+        int minZ = MathHelper.floor(z - radius) >> CELL_SHIFT, maxZ = MathHelper.floor(z + radius) >> CELL_SHIFT;
+        double radiusSq = radius * radius;
+        // For very large radii, checking all occupied cells is cheaper than checking every cell in range
+        if((long)(maxX - minX + 1) * (maxZ - minZ + 1) > cells.size()){
+            for(Set<Entry> entries : cells.values())
+                acceptNear(entries, dimension, x, y, z, radiusSq, consumer);
+            return;
+        }
+
+        for(int cellX = minX; cellX <= maxX; cellX++){
+            for(int cellZ = minZ; cellZ <= maxZ; cellZ++){
+                Set<Entry> entries = cells.get(cellKey(cellX, cellZ));
+                if(entries != null)
+                    acceptNear(entries, dimension, x, y, z, radiusSq, consumer);
+            }
+        }
+    }
+
+    private static void acceptNear(Set<Entry> entries, int dimension, double x, double y, double z, double radiusSq, Consumer<EntityPlayerMP> consumer){
+        for(Entry entry : entries){
+            EntityPlayerMP player = entry.player;
+            if(player.dimension != dimension)
+                continue;
+            double dx = x - player.posX, dy = y - player.posY, dz = z - player.posZ;
+            if(dx * dx + dy * dy + dz * dz < radiusSq)
+                consumer.accept(player);
+        }
+    }
+
+    private static long cellKey(int cellX, int cellZ){
+        return ((long)cellX << 32) | (cellZ & 0xffffffffL);
+    }
+
+    private static final class Entry {
+
+        private volatile EntityPlayerMP player;
+        private int dimension;
+        private long cell;
+
+        private Entry(EntityPlayerMP player, int dimension, long cell){
+            this.player = player;
+            this.dimension = dimension;
+            this.cell = cell;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.supermartijn642.core.network;
+
+/**
+ * Created 17/10/2026 by SuperMartijn642
+ */
+public enum QueueOverflowPolicy {
+    /**
+     * Discards packets which don't fit in the queue
+     */
+    DROP,
+    /**
+     * Disconnects players whose packets don't fit in the queue
+     */
+    DISCONNECT,
+    /**
+     * Schedules packets which don't fit in the queue on the server's regular, unbounded task queue
+     */
+    SPILL
+}
@@ -0,0 +1,61 @@
+package com.supermartijn642.core.network;
+
+import java.util.List;
+
+/**
+ * A packet read from a received frame before it is handled. This is either a decoded packet or one of the channel's internal
+ * messages, such as a stream chunk or a request. Internal messages are kept apart from {@link BasePacket}, such that they can never be sent or handled as a regular packet.
+ * <p>
+ * Created 17/10/2026 by SuperMartijn642
+ */
+interface ReceivedPacket {
+
+    /**
+     * @return the decoded packet, or {@code null} for internal messages which don't hold a decoded packet
+     */
+    BasePacket getPacket();
+
+    /**
+     * Receives the packets read from a frame. Decoded packets which are not pooled are passed on as is, such that they don't need to be wrapped.
+     */
+    interface Sink {
+
+        void accept(ReceivedPacket packet);
+
+        void accept(BasePacket packet);
+
+        /**
+         * @return a sink which adds all packets to the given list
+         */
+        static Sink into(List<ReceivedPacket> packets){
+            return new Sink() {
+                @Override
+                public void accept(ReceivedPacket packet){
+                    packets.add(packet);
+                }
+
+                @Override
+                public void accept(BasePacket packet){
+                    packets.add(new DecodedPacket(packet));
+                }
+            };
+        }
+    }
+
+    /**
+     * A decoded packet which is not pooled, used where packets are collected into a list
+     */
+    final class DecodedPacket implements ReceivedPacket {
+
+        private final BasePacket packet;
+
+        DecodedPacket(BasePacket packet){
+            this.packet = packet;
+        }
+
+        @Override
+        public BasePacket getPacket(){
+            return this.packet;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.supermartijn642.core.network;
+
+import net.minecraft.network.PacketBuffer;
+import net.minecraft.util.ResourceLocation;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Created 17/10/2026 by SuperMartijn642
+ */
+public final class RegistryIdTablePacket implements BasePacket {
+
+    private Map<ResourceLocation,List<ResourceLocation>> identifiers;
+
+    public RegistryIdTablePacket(Map<ResourceLocation,List<ResourceLocation>> identifiers){
+        this.identifiers = identifiers;
+    }
+
+    public RegistryIdTablePacket(){
+    }
+
+    @Override
+    public void write(PacketBuffer buffer){
+        buffer.writeVarInt(this.identifiers.size());
+        for(Map.Entry<ResourceLocation,List<ResourceLocation>> entry : this.identifiers.entrySet()){
+            buffer.writeString(entry.getKey().toString());
+            buffer.writeVarInt(entry.getValue().size());
+            for(ResourceLocation identifier : entry.getValue())
+                buffer.writeString(identifier.toString());
+        }
+    }
+
+    @Override
+    public void read(PacketBuffer buffer){
+        int registries = buffer.readVarInt();
+        this.identifiers = new LinkedHashMap<>(registries * 2);
+        for(int i = 0; i < registries; i++){
+            ResourceLocation registry = new ResourceLocation(buffer.readString(32767));
+            int size = buffer.readVarInt();
+            List<ResourceLocation> identifiers = new ArrayList<>(size);
+            for(int j = 0; j < size; j++)
+                identifiers.add(new ResourceLocation(buffer.readString(32767)));
+            this.identifiers.put(registry, identifiers);
+        }
+    }
+
+    @Override
+    public boolean verify(PacketContext context){
+        return context.getOriginatingSide().isServer();
+    }
+
+    @Override
+    public void handle(PacketContext context){
+        // This is handled off thread, so the ids are known before any following packets get decoded
+        RegistryNetworkIds.setServerIds(this.identifiers);
+    }
+}
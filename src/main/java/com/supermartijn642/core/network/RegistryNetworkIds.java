@@ -0,0 +1,142 @@
+package com.supermartijn642.core.network;
+
+import com.supermartijn642.core.registry.Registries;
+import net.minecraft.util.ResourceLocation;
+
+import java.util.*;
+
+/**
+ * Numeric ids for entries in {@link Registries#MENU_TYPES} and {@link Registries#BLOCK_ENTITY_TYPES}, such that packets don't have to send
+ * full identifiers. The server's ids are sent to clients when they log in, hence ids must only be used in packets once the player has logged in.
+ * <p>
+ * Created 17/10/2026 by SuperMartijn642
+ */
+public final class RegistryNetworkIds {
+
+    private static final Map<Registries.Registry<?>,IdTable<?>> TABLES = new LinkedHashMap<>();
+
+    static{
+        TABLES.put(Registries.MENU_TYPES, new IdTable<>(Registries.MENU_TYPES));
+        TABLES.put(Registries.BLOCK_ENTITY_TYPES, new IdTable<>(Registries.BLOCK_ENTITY_TYPES));
+    }
+
+    /**
+     * Gets the network id for the given object. Client-side, this is the id used by the server the client is connected to.
+     * @throws IllegalArgumentException if the registry does not have network ids or if the object is not registered
+     */
+    public static <T> int getNetworkId(Registries.Registry<T> registry, T object){
+        int id = getTable(registry).getNetworkId(object);
+        if(id < 0)
+            throw new IllegalArgumentException("Object '" + object + "' does not have a network id in registry '" + registry.getRegistryIdentifier() + "'!");
+        return id;
+    }
+
+    /**
+     * Gets the object for the given network id. Client-side, this uses the ids from the server the client is connected to.
+     * @return the object for the given id, or {@code null} if there is none
+     * @throws IllegalArgumentException if the registry does not have network ids
+     */
+    public static <T> T getValue(Registries.Registry<T> registry, int networkId){
+        return getTable(registry).getValue(networkId);
+    }
+
+    private static <T> IdTable<T> getTable(Registries.Registry<T> registry){
+        //noinspection unchecked
+        IdTable<T> table = (IdTable<T>)TABLES.get(registry);
+        if(table == null)
+            throw new IllegalArgumentException("Registry '" + registry.getRegistryIdentifier() + "' does not have network ids!");
+        return table;
+    }
+
+    /**
+     * @return the identifiers of each registry's entries indexed by their local ids
+     */
+    static Map<ResourceLocation,List<ResourceLocation>> getLocalIds(){
+        Map<ResourceLocation,List<ResourceLocation>> ids = new LinkedHashMap<>();
+        for(IdTable<?> table : TABLES.values())
+            ids.put(table.registry.getRegistryIdentifier(), table.getLocal().identifiers);
+        return ids;
+    }
+
+    /**
+     * Installs the server's id tables. Passing {@code null} resets all registries to use their local ids.
+     * @param identifiers identifiers of each registry's entries indexed by the server's ids
+     */
+    static void setServerIds(Map<ResourceLocation,List<ResourceLocation>> identifiers){
+        for(IdTable<?> table : TABLES.values())
+            table.setServerIds(identifiers == null ? null : identifiers.getOrDefault(table.registry.getRegistryIdentifier(), Collections.emptyList()));
+    }
+
+    private static final class IdTable<T> {
+
+        private final Registries.Registry<T> registry;
+        /**
+         * Ids assigned by this side, built lazily from the registry's sorted identifiers
+         */
+        private volatile Ids<T> local;
+        /**
+         * Ids received from the server, only used client-side
+         */
+        private volatile Ids<T> server;
+
+        private IdTable(Registries.Registry<T> registry){
+            this.registry = registry;
+        }
+
+        int getNetworkId(T object){
+            Integer id = this.getIds().objectToId.get(object);
+            return id == null ? -1 : id;
+        }
+
+        T getValue(int id){
+            Ids<T> ids = this.getIds();
+            return id >= 0 && id < ids.values.length ? ids.values[id] : null;
+        }
+
+        private Ids<T> getIds(){
+            Ids<T> server = this.server;
+            return server == null ? this.getLocal() : server;
+        }
+
+        private Ids<T> getLocal(){
+            Ids<T> local = this.local;
+            // Rebuild the ids in case objects got registered after they were first used
+            if(local == null || local.values.length != this.registry.getIdentifiers().size()){
+                synchronized(this){
+                    local = this.local;
+                    if(local == null || local.values.length != this.registry.getIdentifiers().size()){
+                        List<ResourceLocation> identifiers = new ArrayList<>(this.registry.getIdentifiers());
+                        identifiers.sort(Comparator.comparing(ResourceLocation::toString));
+                        this.local = local = new Ids<>(this.registry, identifiers);
+                    }
+                }
+            }
+            return local;
+        }
+
+        void setServerIds(List<ResourceLocation> identifiers){
+            this.server = identifiers == null ? null : new Ids<>(this.registry, identifiers);
+        }
+    }
+
+    private static final class Ids<T> {
+
+        private final List<ResourceLocation> identifiers;
+        private final T[] values;
+        private final Map<T,Integer> objectToId;
+
+        private Ids(Registries.Registry<T> registry, List<ResourceLocation> identifiers){
+            this.identifiers = Collections.unmodifiableList(identifiers);
+            //noinspection unchecked
+            this.values = (T[])new Object[identifiers.size()];
+            this.objectToId = new HashMap<>(identifiers.size() * 2);
+            for(int id = 0; id < identifiers.size(); id++){
+                // Entries the server has but this side doesn't are left empty
+                T value = registry.getValue(identifiers.get(id));
+                this.values[id] = value;
+                if(value != null)
+                    this.objectToId.put(value, id);
+            }
+        }
+    }
+}
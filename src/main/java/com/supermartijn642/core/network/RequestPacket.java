@@ -0,0 +1,22 @@
+package com.supermartijn642.core.network;
+
+/**
+ * Created 17/10/2026 by SuperMartijn642
+ */
+public interface RequestPacket<R extends BasePacket> extends BasePacket {
+
+    /**
+     * Creates the response to this request. This is called on the main thread if the request was
+     * registered to be queued and off thread otherwise.
+     * Returning {@code null} makes the request fail on the client.
+     * @return the response to be sent to the client
+     */
+    R respond(PacketContext context);
+
+    /**
+     * Requests are handled through {@link #respond(PacketContext)}, so this will never be called.
+     */
+    @Override
+    default void handle(PacketContext context){
+    }
+}
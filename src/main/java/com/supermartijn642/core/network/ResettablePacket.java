@@ -0,0 +1,17 @@
+package com.supermartijn642.core.network;
+
+/**
+ * A packet whose instances may be reused for multiple received packets, to avoid creating a new instance for every received packet.
+ * Once a received packet has been handled, it is reset and may be filled with the data of a later packet.
+ * Handlers must therefore not keep a reference to the packet after handling finishes, this includes tasks scheduled from the handler.
+ * Request and response packets are never reused.
+ * <p>
+ * Created 17/10/2026 by SuperMartijn642
+ */
+public interface ResettablePacket extends BasePacket {
+
+    /**
+     * Clears any references held by the packet, such that they can be garbage collected whilst the packet is waiting to be reused.
+     */
+    void reset();
+}
@@ -0,0 +1,110 @@
+package com.supermartijn642.core.util;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram of durations in nanoseconds with power of two buckets. Recording is cheap and may be done from any thread.
+ * <p>
+ * Created 17/10/2026 by SuperMartijn642
+ */
+public final class LatencyHistogram {
+
+    private final LongAdder[] buckets = new LongAdder[63];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder total = new LongAdder();
+
+    public LatencyHistogram(){
+        for(int i = 0; i < this.buckets.length; i++)
+            this.buckets[i] = new LongAdder();
+    }
+
+    /**
+     * Records the given duration.
+     * @param nanos duration in nanoseconds
+     */
+    public void record(long nanos){
+        if(nanos < 0)
+            nanos = 0;
+        this.buckets[nanos == 0 ? 0 : 63 - Long.numberOfLeadingZeros(nanos)].increment();
+        this.count.increment();
+        this.total.add(nanos);
+    }
+
+    /**
+     * @return the number of recorded durations
+     */
+    public long getCount(){
+        return this.count.sum();
+    }
+
+    /**
+     * @return the sum of all recorded durations in nanoseconds
+     */
+    public long getTotalNanos(){
+        return this.total.sum();
+    }
+
+    /**
+     * @return the average recorded duration in nanoseconds
+     */
+    public long getAverageNanos(){
+        long count = this.count.sum();
+        return count == 0 ? 0 : this.total.sum() / count;
+    }
+
+    /**
+     * Estimates the given percentile. The returned value is the upper bound of the bucket the percentile falls into.
+     * @param percentile percentile between 0 and 1
+     * @return the estimated percentile in nanoseconds
+     */
+    public long getPercentileNanos(double percentile){
+        long[] counts = new long[this.buckets.length];
+        long count = 0;
+        for(int i = 0; i < counts.length; i++){
+            counts[i] = this.buckets[i].sum();
+            count += counts[i];
+        }
+        if(count == 0)
+            return 0;
+
+        long target = (long)Math.ceil(count * Math.max(0, Math.min(1, percentile)));
+        long seen = 0;
+        for(int i = 0; i < counts.length; i++){
+            seen += counts[i];
+            if(seen >= target && counts[i] > 0)
+                return i >= 62 ? Long.MAX_VALUE : (1L << (i + 1)) - 1;
+        }
+        return Long.MAX_VALUE;
+    }
+
+    /**
+     * Adds all durations recorded by the given histogram to this histogram.
+     */
+    public void add(LatencyHistogram other){
+        for(int i = 0; i < this.buckets.length; i++)
+            this.buckets[i].add(other.buckets[i].sum());
+        this.count.add(other.count.sum());
+        this.total.add(other.total.sum());
+    }
+
+    /**
+     * Clears all recorded durations.
+     */
+    public void reset(){
+        for(LongAdder bucket : this.buckets)
+            bucket.reset();
+        this.count.reset();
+        this.total.reset();
+    }
+
+    /**
+     * Formats the given duration using the largest fitting unit out of ms, us, and ns.
+     */
+    public static String formatNanos(long nanos){
+        if(nanos >= 1_000_000)
+            return String.format("%.1fms", nanos / 1_000_000d);
+        if(nanos >= 1_000)
+            return String.format("%.1fus", nanos / 1_000d);
+        return nanos + "ns";
+    }
+}
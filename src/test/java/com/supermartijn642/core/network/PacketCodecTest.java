@@ -0,0 +1,224 @@
+package com.supermartijn642.core.network;
+
+import io.netty.buffer.Unpooled;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.network.PacketBuffer;
+import net.minecraft.util.ResourceLocation;
+import net.minecraft.util.math.BlockPos;
+import org.junit.Test;
+
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+/**
+ * Created 17/10/2026 by SuperMartijn642
+ */
+public class PacketCodecTest {
+
+    @Test
+    public void testRoundTrip(){
+        TestPacket packet = new TestPacket();
+        packet.flag = true;
+        packet.otherFlag = false;
+        packet.byteValue = -5;
+        packet.shortValue = 1234;
+        packet.intValue = -123456;
+        packet.fixedInt = Integer.MIN_VALUE;
+        packet.longValue = Long.MAX_VALUE;
+        packet.fixedLong = -1;
+        packet.floatValue = 1.5f;
+        packet.doubleValue = -Math.PI;
+        packet.charValue = '\u00f6';
+        packet.string = "hello world";
+        packet.enumValue = TestEnum.SECOND;
+        packet.pos = new BlockPos(-30000000, 255, 12345);
+        packet.fixedPos = new BlockPos(100, -64, -100);
+        packet.uuid = new UUID(123456789L, -987654321L);
+        packet.location = new ResourceLocation("supermartijn642corelib", "test");
+        packet.tag = new NBTTagCompound();
+        packet.tag.setInteger("value", 42);
+
+        TestPacket received = roundTrip(packet, new TestPacket());
+        assertTrue(received.flag);
+        assertFalse(received.otherFlag);
+        assertEquals(packet.byteValue, received.byteValue);
+        assertEquals(packet.shortValue, received.shortValue);
+        assertEquals(packet.intValue, received.intValue);
+        assertEquals(packet.fixedInt, received.fixedInt);
+        assertEquals(packet.longValue, received.longValue);
+        assertEquals(packet.fixedLong, received.fixedLong);
+        assertEquals(packet.floatValue, received.floatValue, 0);
+        assertEquals(packet.doubleValue, received.doubleValue, 0);
+        assertEquals(packet.charValue, received.charValue);
+        assertEquals(packet.string, received.string);
+        assertEquals(packet.enumValue, received.enumValue);
+        assertEquals(packet.pos, received.pos);
+        assertEquals(packet.fixedPos, received.fixedPos);
+        assertEquals(packet.uuid, received.uuid);
+        assertEquals(packet.location, received.location);
+        assertEquals(packet.tag, received.tag);
+        assertEquals(0, received.ignored);
+    }
+
+    @Test
+    public void testNullFields(){
+        TestPacket received = new TestPacket();
+        received.string = "value";
+        received.pos = BlockPos.ORIGIN;
+        received = roundTrip(new TestPacket(), received);
+        assertNull(received.string);
+        assertNull(received.enumValue);
+        assertNull(received.pos);
+        assertNull(received.uuid);
+        assertNull(received.location);
+        assertNull(received.tag);
+    }
+
+    @Test
+    public void testSmallValuesAreCompact(){
+        SmallPacket packet = new SmallPacket();
+        packet.a = -1;
+        packet.b = 1;
+        packet.c = 0;
+        PacketBuffer buffer = new PacketBuffer(Unpooled.buffer());
+        packet.write(buffer);
+        // Zig-zag encoded VarInts take a single byte for values close to zero
+        assertEquals(3, buffer.readableBytes());
+    }
+
+    @Test
+    public void testSuperClassFields(){
+        SubPacket packet = new SubPacket();
+        packet.a = 1;
+        packet.b = 2;
+        packet.c = 3;
+        packet.d = 4;
+        PacketBuffer buffer = new PacketBuffer(Unpooled.buffer());
+        packet.write(buffer);
+        // Super class fields come first, then fields are ordered by name
+        assertEquals(1, unZigZag(buffer.readVarInt()));
+        assertEquals(2, unZigZag(buffer.readVarInt()));
+        assertEquals(3, unZigZag(buffer.readVarInt()));
+        assertEquals(4, unZigZag(buffer.readVarInt()));
+        assertFalse(buffer.isReadable());
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testInvalidEnumOrdinal(){
+        PacketBuffer buffer = new PacketBuffer(Unpooled.buffer());
+        buffer.writeByte(0);
+        buffer.writeVarInt(TestEnum.values().length);
+        new EnumPacket().read(buffer);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFinalField(){
+        PacketCodec.get(FinalFieldPacket.class);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnsupportedType(){
+        PacketCodec.get(UnsupportedFieldPacket.class);
+    }
+
+    private static <T extends CodecBasePacket> T roundTrip(T packet, T received){
+        PacketBuffer buffer = new PacketBuffer(Unpooled.buffer());
+        packet.write(buffer);
+        received.read(buffer);
+        assertFalse(buffer.isReadable());
+        return received;
+    }
+
+    private static int unZigZag(int value){
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private enum TestEnum {
+        FIRST, SECOND
+    }
+
+    private abstract static class EmptyPacket extends CodecBasePacket {
+
+        @Override
+        public void handle(PacketContext context){
+        }
+    }
+
+    private static class TestPacket extends EmptyPacket {
+
+        @PacketField
+        private boolean flag, otherFlag;
+        @PacketField
+        private byte byteValue;
+        @PacketField
+        private short shortValue;
+        @PacketField
+        private int intValue;
+        @PacketField(fixedSize = true)
+        private int fixedInt;
+        @PacketField
+        private long longValue;
+        @PacketField(fixedSize = true)
+        private long fixedLong;
+        @PacketField
+        private float floatValue;
+        @PacketField
+        private double doubleValue;
+        @PacketField
+        private char charValue;
+        @PacketField
+        private String string;
+        @PacketField
+        private TestEnum enumValue;
+        @PacketField
+        private BlockPos pos;
+        @PacketField(fixedSize = true)
+        private BlockPos fixedPos;
+        @PacketField
+        private UUID uuid;
+        @PacketField
+        private ResourceLocation location;
+        @PacketField
+        private NBTTagCompound tag;
+        private int ignored;
+    }
+
+    private static class SmallPacket extends EmptyPacket {
+
+        @PacketField
+        private int a, b;
+        @PacketField
+        private long c;
+    }
+
+    private static class SuperPacket extends EmptyPacket {
+
+        @PacketField
+        int b, a;
+    }
+
+    private static class SubPacket extends SuperPacket {
+
+        @PacketField
+        private int d, c;
+    }
+
+    private static class EnumPacket extends EmptyPacket {
+
+        @PacketField
+        private TestEnum value;
+    }
+
+    private static class FinalFieldPacket extends EmptyPacket {
+
+        @PacketField
+        private final int value = 0;
+    }
+
+    private static class UnsupportedFieldPacket extends EmptyPacket {
+
+        @PacketField
+        private Object value;
+    }
+}
@@ -0,0 +1,104 @@
+package com.supermartijn642.core.network;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.zip.Deflater;
+
+import static org.junit.Assert.*;
+
+/**
+ * Created 17/10/2026 by SuperMartijn642
+ */
+public class PacketCompressionTest {
+
+    @Test
+    public void testRoundTrip(){
+        for(int size : new int[]{1, 100, 8192, 8193, 100000}){
+            ByteBuf data = compressibleData(size);
+            ByteBuf compressed = PacketCompression.compress(data, 0, size, Deflater.DEFAULT_COMPRESSION);
+            ByteBuf decompressed = PacketCompression.decompress(compressed, size);
+            assertFalse(compressed.isReadable());
+            assertEquals(data, decompressed);
+        }
+    }
+
+    @Test
+    public void testRandomData(){
+        byte[] bytes = new byte[50000];
+        new Random(42).nextBytes(bytes);
+        ByteBuf data = Unpooled.wrappedBuffer(bytes);
+        ByteBuf compressed = PacketCompression.compress(data, 0, bytes.length, Deflater.BEST_SPEED);
+        assertEquals(data, PacketCompression.decompress(compressed, bytes.length));
+    }
+
+    @Test
+    public void testCompressesRange(){
+        ByteBuf data = compressibleData(1000);
+        ByteBuf compressed = PacketCompression.compress(data, 200, 500, Deflater.DEFAULT_COMPRESSION);
+        assertEquals(data.slice(200, 500), PacketCompression.decompress(compressed, 500));
+        // The source buffer should be left untouched
+        assertEquals(0, data.readerIndex());
+        assertEquals(1000, data.writerIndex());
+    }
+
+    @Test
+    public void testDirectBuffer(){
+        ByteBuf data = Unpooled.directBuffer(5000).writeBytes(compressibleData(5000));
+        assertFalse(data.hasArray());
+        ByteBuf compressed = PacketCompression.compress(data, 0, 5000, Deflater.DEFAULT_COMPRESSION);
+        ByteBuf directCompressed = Unpooled.directBuffer(compressed.readableBytes()).writeBytes(compressed);
+        assertEquals(data, PacketCompression.decompress(directCompressed, 5000));
+        data.release();
+        directCompressed.release();
+    }
+
+    @Test
+    public void testCompressedIsSmaller(){
+        ByteBuf compressed = PacketCompression.compress(compressibleData(10000), 0, 10000, Deflater.DEFAULT_COMPRESSION);
+        assertTrue(compressed.readableBytes() < 10000);
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testSizeTooSmall(){
+        ByteBuf compressed = PacketCompression.compress(compressibleData(1000), 0, 1000, Deflater.DEFAULT_COMPRESSION);
+        PacketCompression.decompress(compressed, 999);
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testSizeTooLarge(){
+        ByteBuf compressed = PacketCompression.compress(compressibleData(1000), 0, 1000, Deflater.DEFAULT_COMPRESSION);
+        PacketCompression.decompress(compressed, 1001);
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testNegativeSize(){
+        PacketCompression.decompress(Unpooled.buffer(), -1);
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testSizeAboveMaximum(){
+        ByteBuf compressed = PacketCompression.compress(compressibleData(1000), 0, 1000, Deflater.DEFAULT_COMPRESSION);
+        PacketCompression.decompress(compressed, PacketCompression.MAX_DECOMPRESSED_SIZE + 1);
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testTruncated(){
+        ByteBuf compressed = PacketCompression.compress(compressibleData(10000), 0, 10000, Deflater.DEFAULT_COMPRESSION);
+        PacketCompression.decompress(compressed.slice(0, compressed.readableBytes() / 2), 10000);
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testMalformed(){
+        PacketCompression.decompress(Unpooled.wrappedBuffer(new byte[]{1, 2, 3, 4, 5, 6, 7, 8}), 100);
+    }
+
+    private static ByteBuf compressibleData(int size){
+        ByteBuf data = Unpooled.buffer(size);
+        for(int i = 0; i < size; i++)
+            data.writeByte(i % 17);
+        return data;
+    }
+}
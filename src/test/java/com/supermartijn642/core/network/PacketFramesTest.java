@@ -0,0 +1,129 @@
+package com.supermartijn642.core.network;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import net.minecraft.network.PacketBuffer;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Created 17/10/2026 by SuperMartijn642
+ */
+public class PacketFramesTest {
+
+    @Test
+    public void testHeaderWithoutFlags(){
+        PacketBuffer buffer = new PacketBuffer(Unpooled.buffer());
+        PacketFrames.writeHeader(buffer, 5, 0);
+        // Small indices without flags fit in a single byte
+        assertEquals(1, buffer.readableBytes());
+        assertHeader(buffer, 5, 0);
+    }
+
+    @Test
+    public void testHeaderWithFlags(){
+        PacketBuffer buffer = new PacketBuffer(Unpooled.buffer());
+        PacketFrames.writeHeader(buffer, 5, PacketChannel.FLAG_STREAM_CHUNK);
+        assertEquals(2, buffer.readableBytes());
+        assertHeader(buffer, 5, PacketChannel.FLAG_STREAM_CHUNK);
+    }
+
+    @Test
+    public void testHeaderRoundTrip(){
+        int[] indices = {0, 1, 63, 64, 127, 128, 300, 16383, 16384, 1 << 20, Integer.MAX_VALUE >>> 1};
+        int[] flags = {0, PacketChannel.FLAG_STREAM_CHUNK, 0xff};
+        for(int index : indices){
+            for(int flag : flags){
+                PacketBuffer buffer = new PacketBuffer(Unpooled.buffer());
+                PacketFrames.writeHeader(buffer, index, flag);
+                assertHeader(buffer, index, flag);
+                assertFalse(buffer.isReadable());
+            }
+        }
+    }
+
+    @Test
+    public void testConsecutiveHeaders(){
+        PacketBuffer buffer = new PacketBuffer(Unpooled.buffer());
+        PacketFrames.writeHeader(buffer, 200, 0);
+        PacketFrames.writeHeader(buffer, 3, PacketChannel.FLAG_STREAM_CHUNK);
+        PacketFrames.writeHeader(buffer, 0, 0);
+        assertHeader(buffer, 200, 0);
+        assertHeader(buffer, 3, PacketChannel.FLAG_STREAM_CHUNK);
+        assertHeader(buffer, 0, 0);
+        assertFalse(buffer.isReadable());
+    }
+
+    @Test
+    public void testSinglePacketIsNotBundled(){
+        ByteBuf packet = encodedPacket(4, 1, 2, 3);
+        PacketBuffer buffer = new PacketBuffer(Unpooled.buffer());
+        PacketFrames.writeEncoded(Collections.singletonList(packet), buffer);
+        assertEquals(packet, buffer);
+    }
+
+    @Test
+    public void testBundleRoundTrip(){
+        List<ByteBuf> packets = Arrays.asList(encodedPacket(1), encodedPacket(2, 10, 20), encodedPacket(300, new byte[1000]));
+        PacketBuffer buffer = new PacketBuffer(Unpooled.buffer());
+        PacketFrames.writeEncoded(packets, buffer);
+
+        assertHeader(buffer, 0, PacketChannel.FLAG_BUNDLE);
+        List<ByteBuf> bundled = new ArrayList<>();
+        PacketFrames.readBundle(buffer, bundled::add);
+        assertFalse(buffer.isReadable());
+        assertEquals(packets, bundled);
+    }
+
+    @Test
+    public void testBundleKeepsReaderIndices(){
+        // Only the readable bytes of encoded packets should be bundled
+        ByteBuf first = encodedPacket(1, 5, 6), second = encodedPacket(2, 7);
+        first.skipBytes(1);
+        PacketBuffer buffer = new PacketBuffer(Unpooled.buffer());
+        PacketFrames.writeEncoded(Arrays.asList(first, second), buffer);
+        assertEquals(1, first.readerIndex());
+
+        assertHeader(buffer, 0, PacketChannel.FLAG_BUNDLE);
+        List<ByteBuf> bundled = new ArrayList<>();
+        PacketFrames.readBundle(buffer, bundled::add);
+        assertEquals(Arrays.asList(first, second), bundled);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testTruncatedBundle(){
+        PacketBuffer buffer = new PacketBuffer(Unpooled.buffer());
+        PacketFrames.writeEncoded(Arrays.asList(encodedPacket(1, 2, 3), encodedPacket(2, 4, 5)), buffer);
+        buffer.writerIndex(buffer.writerIndex() - 1);
+
+        assertHeader(buffer, 0, PacketChannel.FLAG_BUNDLE);
+        PacketFrames.readBundle(buffer, packet -> {});
+    }
+
+    private static ByteBuf encodedPacket(int index, int... data){
+        PacketBuffer buffer = new PacketBuffer(Unpooled.buffer());
+        PacketFrames.writeHeader(buffer, index, 0);
+        for(int b : data)
+            buffer.writeByte(b);
+        return buffer;
+    }
+
+    private static ByteBuf encodedPacket(int index, byte[] data){
+        PacketBuffer buffer = new PacketBuffer(Unpooled.buffer());
+        PacketFrames.writeHeader(buffer, index, 0);
+        buffer.writeBytes(data);
+        return buffer;
+    }
+
+    private static void assertHeader(PacketBuffer buffer, int index, int flags){
+        int header = buffer.readVarInt();
+        assertEquals(flags, PacketFrames.readFlags(buffer, header));
+        assertEquals(index, PacketFrames.getIndex(header));
+    }
+}
@@ -0,0 +1,123 @@
+package com.supermartijn642.core.network;
+
+import io.netty.buffer.Unpooled;
+import net.minecraft.network.PacketBuffer;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * Created 17/10/2026 by SuperMartijn642
+ */
+public class PacketRequestsTest {
+
+    @Test
+    public void testRequestRoundTrip(){
+        TestRequest request = new TestRequest();
+        request.value = -12345;
+        PacketBuffer buffer = new PacketBuffer(Unpooled.buffer());
+        PacketFrames.writeHeader(buffer, 3, PacketChannel.FLAG_REQUEST, 77);
+        request.write(buffer);
+
+        int header = buffer.readVarInt();
+        int flags = PacketFrames.readFlags(buffer, header);
+        assertEquals(3, PacketFrames.getIndex(header));
+        assertEquals(PacketChannel.FLAG_REQUEST, flags);
+        assertEquals(77, PacketFrames.readRequestId(buffer, flags));
+        TestRequest received = new TestRequest();
+        received.read(buffer);
+        assertEquals(-12345, received.value);
+        assertFalse(buffer.isReadable());
+    }
+
+    @Test
+    public void testRequestIds(){
+        int[] requestIds = {0, 1, 127, 128, 65536, Integer.MAX_VALUE};
+        int[] flags = {PacketChannel.FLAG_REQUEST, PacketChannel.FLAG_RESPONSE, PacketChannel.FLAG_REQUEST | PacketChannel.FLAG_CANCELLED, PacketChannel.FLAG_RESPONSE | PacketChannel.FLAG_CANCELLED};
+        for(int requestId : requestIds){
+            for(int flag : flags){
+                PacketBuffer buffer = new PacketBuffer(Unpooled.buffer());
+                PacketFrames.writeHeader(buffer, 0, flag, requestId);
+                int header = buffer.readVarInt();
+                int readFlags = PacketFrames.readFlags(buffer, header);
+                assertEquals(flag, readFlags);
+                assertEquals(requestId, PacketFrames.readRequestId(buffer, readFlags));
+                assertFalse(buffer.isReadable());
+            }
+        }
+    }
+
+    @Test
+    public void testNoRequestIdForRegularPackets(){
+        PacketBuffer buffer = new PacketBuffer(Unpooled.buffer());
+        PacketFrames.writeHeader(buffer, 5, 0, 77);
+        int header = buffer.readVarInt();
+        int flags = PacketFrames.readFlags(buffer, header);
+        assertEquals(0, PacketFrames.readRequestId(buffer, flags));
+        assertFalse(buffer.isReadable());
+    }
+
+    @Test
+    public void testResponseClass(){
+        assertEquals(TestResponse.class, PacketRequests.getResponseClass(TestRequest.class));
+        assertEquals(TestResponse.class, PacketRequests.getResponseClass(TestSubRequest.class));
+        // Requests without a declared response type accept any packet
+        assertEquals(BasePacket.class, PacketRequests.getResponseClass(RawRequest.class));
+    }
+
+    private static class TestRequest implements RequestPacket<TestResponse> {
+
+        private int value;
+
+        @Override
+        public void write(PacketBuffer buffer){
+            buffer.writeInt(this.value);
+        }
+
+        @Override
+        public void read(PacketBuffer buffer){
+            this.value = buffer.readInt();
+        }
+
+        @Override
+        public TestResponse respond(PacketContext context){
+            return new TestResponse();
+        }
+    }
+
+    private static class TestSubRequest extends TestRequest {
+    }
+
+    @SuppressWarnings("rawtypes")
+    private static class RawRequest implements RequestPacket {
+
+        @Override
+        public void write(PacketBuffer buffer){
+        }
+
+        @Override
+        public void read(PacketBuffer buffer){
+        }
+
+        @Override
+        public BasePacket respond(PacketContext context){
+            return null;
+        }
+    }
+
+    private static class TestResponse implements BasePacket {
+
+        @Override
+        public void write(PacketBuffer buffer){
+        }
+
+        @Override
+        public void read(PacketBuffer buffer){
+        }
+
+        @Override
+        public void handle(PacketContext context){
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.supermartijn642.core.network;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import net.minecraft.network.PacketBuffer;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Created 17/10/2026 by SuperMartijn642
+ */
+public class PacketStreamsTest {
+
+    @Test
+    public void testSingleChunk(){
+        ByteBuf data = streamData(100);
+        PacketStreams.StreamChunk chunk = readChunk(PacketStreams.writeChunk(7, 0, data));
+        assertEquals(7, chunk.streamId);
+        assertEquals(0, chunk.chunkIndex);
+        assertEquals(100, chunk.totalSize);
+        assertEquals(streamData(100), Unpooled.wrappedBuffer(chunk.data));
+        assertFalse(data.isReadable());
+    }
+
+    @Test
+    public void testRoundTrip(){
+        for(int size : new int[]{1, PacketStreams.CHUNK_SIZE - 1, PacketStreams.CHUNK_SIZE, PacketStreams.CHUNK_SIZE + 1, 5 * PacketStreams.CHUNK_SIZE + 123}){
+            ByteBuf data = streamData(size);
+            ByteBuf received = Unpooled.buffer();
+            int totalSize = -1;
+            for(int chunkIndex = 0; data.isReadable(); chunkIndex++){
+                PacketStreams.StreamChunk chunk = readChunk(PacketStreams.writeChunk(3, chunkIndex, data));
+                assertEquals(3, chunk.streamId);
+                assertEquals(chunkIndex, chunk.chunkIndex);
+                // Only the first chunk holds the stream's size
+                if(chunkIndex == 0)
+                    totalSize = chunk.totalSize;
+                else
+                    assertEquals(-1, chunk.totalSize);
+                assertTrue(chunk.data.length <= PacketStreams.CHUNK_SIZE);
+                received.writeBytes(chunk.data);
+            }
+            assertEquals(size, totalSize);
+            assertEquals(streamData(size), received);
+        }
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testOversizedChunk(){
+        PacketBuffer buffer = new PacketBuffer(Unpooled.buffer());
+        buffer.writeVarInt(0);
+        buffer.writeVarInt(1);
+        buffer.writeBytes(new byte[PacketStreams.CHUNK_SIZE + 1]);
+        PacketStreams.readChunk(buffer);
+    }
+
+    private static PacketStreams.StreamChunk readChunk(ByteBuf encodedChunk){
+        PacketBuffer buffer = new PacketBuffer(encodedChunk);
+        int header = buffer.readVarInt();
+        assertEquals(PacketChannel.FLAG_STREAM_CHUNK, PacketFrames.readFlags(buffer, header));
+        assertEquals(0, PacketFrames.getIndex(header));
+        PacketStreams.StreamChunk chunk = PacketStreams.readChunk(buffer);
+        assertFalse(buffer.isReadable());
+        return chunk;
+    }
+
+    private static ByteBuf streamData(int size){
+        ByteBuf data = Unpooled.buffer(size);
+        for(int i = 0; i < size; i++)
+            data.writeByte(i * 31);
+        return data;
+    }
+}